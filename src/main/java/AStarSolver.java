@@ -0,0 +1,148 @@
+import java.util.Arrays;
+
+/**
+ * Finds shortest paths with an A* search using the Manhattan distance heuristic.
+ * <p>
+ * The open set is an {@link IntHeap} of cell indexes keyed by estimated total cost, so nothing is
+ * boxed. Per-cell state lives in primitive arrays that are kept between
+ * queries; a query stamp marks which entries belong to the current search, so nothing needs to be
+ * cleared. Instances are not thread safe.
+ */
+final class AStarSolver {
+
+    /**
+     * Flag in {@link #from} marking a cell whose shortest path is final.
+     */
+    private static final byte CLOSED = 4;
+
+    /**
+     * Mask in {@link #from} for the direction of the step into a cell.
+     */
+    private static final byte DIRECTION = 3;
+
+    /**
+     * The grid being searched.
+     */
+    private final WallGrid walls;
+
+    /**
+     * The query during which each cell was last reached.
+     */
+    private final int[] stamp;
+
+    /**
+     * The cost of the best known path to each cell.
+     */
+    private final int[] cost;
+
+    /**
+     * The direction of the step into each cell, plus the closed flag.
+     */
+    private final byte[] from;
+
+    /**
+     * The open set, keyed by estimated total cost.
+     */
+    private final IntHeap openSet = new IntHeap(1024);
+
+    /**
+     * The current query number.
+     */
+    private int query;
+
+    /**
+     * Create a new solver for a grid.
+     *
+     * @param setWalls the grid to search
+     */
+    AStarSolver(final WallGrid setWalls) {
+        walls = setWalls;
+        stamp = new int[walls.size()];
+        cost = new int[walls.size()];
+        from = new byte[walls.size()];
+    }
+
+    /**
+     * Find the shortest path between two cells.
+     *
+     * @param start the starting cell
+     * @param goal  the goal cell
+     * @return the shortest path, or null if the goal is unreachable
+     */
+    MazePath solve(final int start, final int goal) {
+        query++;
+        if (query == 0) {
+            Arrays.fill(stamp, 0);
+            query = 1;
+        }
+        int goalX = walls.x(goal);
+        int goalY = walls.y(goal);
+
+        stamp[start] = query;
+        cost[start] = 0;
+        from[start] = 0;
+        openSet.clear();
+        openSet.add(heuristic(start, goalX, goalY), start);
+        long expanded = 0;
+
+        while (!openSet.isEmpty()) {
+            int cell = openSet.remove();
+            if ((from[cell] & CLOSED) != 0) {
+                continue;
+            }
+            from[cell] |= CLOSED;
+            expanded++;
+            if (cell == goal) {
+                return new MazePath(walls.x(start), walls.y(start), steps(start, goal),
+                        expanded);
+            }
+
+            int open = walls.mask(cell);
+            int nextCost = cost[cell] + 1;
+            for (int direction = WallGrid.UP; direction <= WallGrid.LEFT; direction++) {
+                if ((open & (1 << direction)) == 0) {
+                    continue;
+                }
+                int neighbor = walls.neighbor(cell, direction);
+                if (stamp[neighbor] == query && cost[neighbor] <= nextCost) {
+                    continue;
+                }
+                stamp[neighbor] = query;
+                cost[neighbor] = nextCost;
+                from[neighbor] = (byte) direction;
+                openSet.add(nextCost + heuristic(neighbor, goalX, goalY), neighbor);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Estimate the remaining cost from a cell to the goal.
+     *
+     * @param cell  the cell index
+     * @param goalX the goal X coordinate
+     * @param goalY the goal Y coordinate
+     * @return the Manhattan distance to the goal
+     */
+    private int heuristic(final int cell, final int goalX, final int goalY) {
+        return Math.abs(walls.x(cell) - goalX) + Math.abs(walls.y(cell) - goalY);
+    }
+
+    /**
+     * Build the steps of the path found to the goal.
+     *
+     * @param start the starting cell
+     * @param goal  the goal cell
+     * @return the direction ordinal of each step
+     */
+    private byte[] steps(final int start, final int goal) {
+        byte[] steps = new byte[cost[goal]];
+        int cell = goal;
+        for (int step = steps.length - 1; step >= 0; step--) {
+            int direction = from[cell] & DIRECTION;
+            steps[step] = (byte) direction;
+            cell = walls.neighbor(cell, (direction + 2) & 3);
+        }
+        return steps;
+    }
+}
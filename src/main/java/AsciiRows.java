@@ -0,0 +1,387 @@
+import java.util.Arrays;
+
+/**
+ * Draws maze rows in the text format used by {@link Maze#toString()}.
+ * <p>
+ * Each row of cells becomes a line through the cell centers and a line of walls below it, and
+ * the drawing starts with a solid line for the top edge. Rows are given as arrays of open-border
+ * masks using the bits of {@link WallGrid}, so the same code draws from a grid or a stream.
+ */
+final class AsciiRows {
+
+    /**
+     * Character used for walls.
+     */
+    static final char WALL = '#';
+
+    /**
+     * Character used for open space.
+     */
+    static final char OPEN = ' ';
+
+    /**
+     * Character used for the current location.
+     */
+    static final char CURRENT = 'X';
+
+    /**
+     * Character used for the end location.
+     */
+    static final char END = 'E';
+
+    /**
+     * Character used for an overlaid path.
+     */
+    static final char PATH = '.';
+
+    /**
+     * Bit for an open up border.
+     */
+    private static final int UP = 1 << WallGrid.UP;
+
+    /**
+     * Bit for an open right border.
+     */
+    private static final int RIGHT = 1 << WallGrid.RIGHT;
+
+    /**
+     * Bit for an open left border.
+     */
+    private static final int LEFT = 1 << WallGrid.LEFT;
+
+    /**
+     * Utility class.
+     */
+    private AsciiRows() {
+    }
+
+    /**
+     * Get the length of each line, including the trailing newline.
+     *
+     * @param width the maze width in cells
+     * @return the line length
+     */
+    static int lineLength(final int width) {
+        return 2 * width + 2;
+    }
+
+    /**
+     * Draw the line of walls between two rows.
+     *
+     * @param above  the row above the line, or null along the top edge
+     * @param below  the row below the line, or null along the bottom edge
+     * @param width  the maze width in cells
+     * @param out    the buffer to draw into
+     * @param offset where in the buffer to start
+     * @return the offset just past the line
+     */
+    static int wallLine(final byte[] above, final byte[] below, final int width,
+                        final char[] out, final int offset) {
+        int position = offset;
+        if (above == null || below == null) {
+            for (int i = 0; i < 2 * width; i++) {
+                out[position++] = WALL;
+            }
+        } else {
+            for (int x = 0; x < width; x++) {
+                char corner = WALL;
+                if (x > 0 && (above[x - 1] & RIGHT) != 0 && (below[x - 1] & RIGHT) != 0
+                        && (below[x - 1] & UP) != 0 && (below[x] & UP) != 0) {
+                    corner = OPEN;
+                }
+                out[position++] = corner;
+                char segment = WALL;
+                if ((below[x] & UP) != 0) {
+                    segment = OPEN;
+                }
+                out[position++] = segment;
+            }
+        }
+        out[position++] = WALL;
+        out[position++] = '\n';
+        return position;
+    }
+
+    /**
+     * Draw the line through the centers of a row of cells.
+     *
+     * @param row      the row
+     * @param width    the maze width in cells
+     * @param currentX the column holding the current location, or -1 if none
+     * @param endX     the column holding the end location, or -1 if none
+     * @param out      the buffer to draw into
+     * @param offset   where in the buffer to start
+     * @return the offset just past the line
+     */
+    static int cellLine(final byte[] row, final int width, final int currentX, final int endX,
+                        final char[] out, final int offset) {
+        int position = offset;
+        for (int x = 0; x < width; x++) {
+            char side = WALL;
+            if ((row[x] & LEFT) != 0) {
+                side = OPEN;
+            }
+            out[position++] = side;
+            char center = OPEN;
+            if (x == currentX) {
+                center = CURRENT;
+            } else if (x == endX) {
+                center = END;
+            }
+            out[position++] = center;
+        }
+        out[position++] = WALL;
+        out[position++] = '\n';
+        return position;
+    }
+
+    /**
+     * Find where a path appears in the drawing of a grid.
+     * <p>
+     * The path covers the center of every cell it visits and the gap between each pair of
+     * consecutive cells. Positions are returned as {@code line * lineLength(width) + column},
+     * sorted so they can be applied while the drawing is made from the top down.
+     *
+     * @param walls the grid
+     * @param path  the path
+     * @return the sorted positions
+     */
+    static long[] pathMarks(final WallGrid walls, final MazePath path) {
+        int width = walls.getWidth();
+        int height = walls.getHeight();
+        int x = path.getStart().x();
+        int y = path.getStart().y();
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IllegalArgumentException("path starts outside the maze");
+        }
+        long lineLength = lineLength(width);
+        byte[] steps = path.steps();
+        long[] marks = new long[2 * steps.length + 1];
+        int cell = walls.index(x, y);
+        marks[0] = (2L * (height - 1 - y) + 1) * lineLength + 2 * x + 1;
+        for (int step = 0; step < steps.length; step++) {
+            int direction = steps[step];
+            if (!walls.hasNeighbor(cell, direction)) {
+                throw new IllegalArgumentException("path leaves the maze");
+            }
+            int next = walls.neighbor(cell, direction);
+            long line = 2L * (height - 1 - walls.y(cell)) + 1;
+            long column = 2 * walls.x(cell) + 1;
+            switch (direction) {
+                case WallGrid.UP:
+                    line--;
+                    break;
+                case WallGrid.RIGHT:
+                    column++;
+                    break;
+                case WallGrid.DOWN:
+                    line++;
+                    break;
+                default:
+                    column--;
+                    break;
+            }
+            marks[2 * step + 1] = line * lineLength + column;
+            marks[2 * step + 2] = (2L * (height - 1 - walls.y(next)) + 1) * lineLength
+                    + 2 * walls.x(next) + 1;
+            cell = next;
+        }
+        Arrays.sort(marks);
+        return marks;
+    }
+
+    /**
+     * Draws a wall grid from the top down, one row of cells at a time.
+     */
+    static final class GridDrawer {
+
+        /**
+         * The grid being drawn.
+         */
+        private final WallGrid walls;
+
+        /**
+         * The cell to mark as the current location, or -1.
+         */
+        private final int currentCell;
+
+        /**
+         * The cell to mark as the end location, or -1.
+         */
+        private final int endCell;
+
+        /**
+         * The next row to draw.
+         */
+        private byte[] row;
+
+        /**
+         * Scratch space for the row below it.
+         */
+        private byte[] below;
+
+        /**
+         * The Y coordinate of the next row to draw.
+         */
+        private int y;
+
+        /**
+         * Sorted positions of an overlaid path, or null.
+         */
+        private final long[] marks;
+
+        /**
+         * The next entry of {@link #marks} to apply.
+         */
+        private int nextMark;
+
+        /**
+         * The index of the next line to draw.
+         */
+        private long line;
+
+        /**
+         * Create a new drawer.
+         *
+         * @param setWalls       the grid to draw
+         * @param setCurrentCell the cell to mark as the current location, or -1
+         * @param setEndCell     the cell to mark as the end location, or -1
+         */
+        GridDrawer(final WallGrid setWalls, final int setCurrentCell, final int setEndCell) {
+            this(setWalls, setCurrentCell, setEndCell, null);
+        }
+
+        /**
+         * Create a new drawer that overlays a path.
+         *
+         * @param setWalls       the grid to draw
+         * @param setCurrentCell the cell to mark as the current location, or -1
+         * @param setEndCell     the cell to mark as the end location, or -1
+         * @param setMarks       positions from {@link #pathMarks}, or null for no path
+         */
+        GridDrawer(final WallGrid setWalls, final int setCurrentCell, final int setEndCell,
+                   final long[] setMarks) {
+            walls = setWalls;
+            currentCell = setCurrentCell;
+            endCell = setEndCell;
+            marks = setMarks;
+            row = new byte[walls.getWidth()];
+            below = new byte[walls.getWidth()];
+            y = walls.getHeight() - 1;
+            load(y, row);
+        }
+
+        /**
+         * Get the length of the whole drawing.
+         *
+         * @return the number of characters
+         */
+        long length() {
+            return (long) lineLength(walls.getWidth()) * (2L * walls.getHeight() + 1);
+        }
+
+        /**
+         * Get the most characters a single call to {@link #next} can draw.
+         *
+         * @return the length of two lines
+         */
+        int rowLength() {
+            return 2 * lineLength(walls.getWidth());
+        }
+
+        /**
+         * Draw the solid line along the top edge.
+         *
+         * @param out    the buffer to draw into
+         * @param offset where in the buffer to start
+         * @return the offset just past the line
+         */
+        int top(final char[] out, final int offset) {
+            return overlay(out, offset, wallLine(null, null, walls.getWidth(), out, offset));
+        }
+
+        /**
+         * Return whether there are rows left to draw.
+         *
+         * @return true until the bottom row has been drawn
+         */
+        boolean hasNext() {
+            return y >= 0;
+        }
+
+        /**
+         * Draw the next row of cells and the line of walls below it.
+         *
+         * @param out    the buffer to draw into
+         * @param offset where in the buffer to start
+         * @return the offset just past the two lines
+         */
+        int next(final char[] out, final int offset) {
+            int width = walls.getWidth();
+            int position = cellLine(row, width, column(currentCell), column(endCell), out,
+                    offset);
+            byte[] next = null;
+            if (y > 0) {
+                load(y - 1, below);
+                next = below;
+            }
+            position = wallLine(row, next, width, out, position);
+            below = row;
+            row = next;
+            y--;
+            return overlay(out, offset, position);
+        }
+
+        /**
+         * Draw the path over lines that have just been drawn. Walls and markers are left alone.
+         *
+         * @param out    the buffer holding the lines
+         * @param offset where the lines start
+         * @param end    where the lines end
+         * @return the end of the lines
+         */
+        private int overlay(final char[] out, final int offset, final int end) {
+            int lineLength = lineLength(walls.getWidth());
+            long first = line * lineLength;
+            line += (end - offset) / lineLength;
+            if (marks == null) {
+                return end;
+            }
+            long last = line * lineLength;
+            while (nextMark < marks.length && marks[nextMark] < last) {
+                int position = offset + (int) (marks[nextMark] - first);
+                if (out[position] == OPEN) {
+                    out[position] = PATH;
+                }
+                nextMark++;
+            }
+            return end;
+        }
+
+        /**
+         * Get the column of a cell if it lies in the next row to draw.
+         *
+         * @param cell the cell, or -1
+         * @return the cell's X coordinate, or -1 if it is not in the row
+         */
+        private int column(final int cell) {
+            if (cell < 0 || walls.y(cell) != y) {
+                return -1;
+            }
+            return walls.x(cell);
+        }
+
+        /**
+         * Read the open-border masks of one row of the grid.
+         *
+         * @param rowY the row's Y coordinate
+         * @param out  the array to fill
+         */
+        private void load(final int rowY, final byte[] out) {
+            int first = walls.index(0, rowY);
+            for (int x = 0; x < out.length; x++) {
+                out[x] = (byte) walls.mask(first + x);
+            }
+        }
+    }
+}
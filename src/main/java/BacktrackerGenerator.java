@@ -0,0 +1,71 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates mazes using a recursive backtracker.
+ * <p>
+ * The path back to the starting cell is kept on a growable stack of cell indices, and the
+ * unvisited neighbors of each cell are packed two bits apiece into one int, so carving allocates
+ * nothing beyond the stack and a one-bit-per-cell visited set. Backtracker mazes have long, winding
+ * corridors with few branches.
+ */
+final class BacktrackerGenerator implements MazeGenerator {
+
+    /**
+     * The order unvisited neighbors are listed in before one is picked, which matches the
+     * iteration order of the original per-cell neighbor maps so seeded mazes stay the same.
+     */
+    private static final int[] ORDER = {WallGrid.LEFT, WallGrid.UP, WallGrid.RIGHT, WallGrid.DOWN};
+
+    @Override
+    public void generate(final WallGrid walls, final Random random) {
+        int randomX = random.nextInt(walls.getWidth());
+        int randomY = random.nextInt(walls.getHeight());
+        int startCell = walls.index(randomX, randomY);
+
+        long[] visited = new long[(walls.size() + 63) >>> 6];
+        int[] path = new int[64];
+        int pathLength = 0;
+
+        path[pathLength++] = startCell;
+        visited[startCell >>> 6] |= 1L << startCell;
+        int unvisitedCount = walls.size() - 1;
+
+        while (unvisitedCount > 0) {
+            if (pathLength == 0) {
+                throw new IllegalStateException("path should not be empty");
+            }
+
+            int currentCell = path[pathLength - 1];
+            int neighbors = walls.neighborMask(currentCell);
+            int candidates = 0;
+            int candidateCount = 0;
+            for (int direction : ORDER) {
+                if ((neighbors & (1 << direction)) == 0) {
+                    continue;
+                }
+                int neighbor = walls.neighbor(currentCell, direction);
+                if ((visited[neighbor >>> 6] & (1L << neighbor)) == 0) {
+                    candidates |= direction << (2 * candidateCount);
+                    candidateCount++;
+                }
+            }
+
+            if (candidateCount == 0) {
+                pathLength--;
+                continue;
+            }
+
+            int direction = (candidates >>> (2 * random.nextInt(candidateCount))) & 3;
+            int nextCell = walls.neighbor(currentCell, direction);
+            walls.carve(currentCell, direction);
+            visited[nextCell >>> 6] |= 1L << nextCell;
+
+            unvisitedCount--;
+            if (pathLength == path.length) {
+                path = Arrays.copyOf(path, Math.min(2 * path.length, walls.size()));
+            }
+            path[pathLength++] = nextCell;
+        }
+    }
+}
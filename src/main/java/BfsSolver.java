@@ -0,0 +1,57 @@
+import java.util.Arrays;
+
+/**
+ * Finds shortest paths with a breadth-first search over the wall grid.
+ * <p>
+ * The frontier is an {@link IntQueue} ring buffer and each reached cell records its parent in
+ * an {@code int} array, so the search allocates no per-cell objects.
+ */
+final class BfsSolver {
+
+    /**
+     * Utility class.
+     */
+    private BfsSolver() {
+    }
+
+    /**
+     * Find the shortest path between two cells.
+     *
+     * @param walls the grid to search
+     * @param from  the starting cell
+     * @param to    the goal cell
+     * @return the shortest path, or null if the goal is unreachable
+     */
+    static MazePath solve(final WallGrid walls, final int from, final int to) {
+        int[] parent = new int[walls.size()];
+        Arrays.fill(parent, -1);
+        parent[from] = from;
+
+        IntQueue queue = new IntQueue();
+        queue.add(from);
+        long expanded = 0;
+
+        while (!queue.isEmpty() && parent[to] == -1) {
+            int cell = queue.remove();
+            expanded++;
+
+            int open = walls.mask(cell);
+            for (int direction = WallGrid.UP; direction <= WallGrid.LEFT; direction++) {
+                if ((open & (1 << direction)) == 0) {
+                    continue;
+                }
+                int neighbor = walls.neighbor(cell, direction);
+                if (parent[neighbor] != -1) {
+                    continue;
+                }
+                parent[neighbor] = cell;
+                queue.add(neighbor);
+            }
+        }
+        if (parent[to] == -1) {
+            return null;
+        }
+        return new MazePath(walls.x(from), walls.y(from),
+                MazePath.fromParents(walls, parent, from, to), expanded);
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.Arrays;
+
+/**
+ * Finds shortest paths with two breadth-first searches that meet in the middle.
+ * <p>
+ * One search grows from the start and the other from the goal. Each round expands a whole level
+ * of whichever frontier is smaller, and the search stops as soon as the two touch. Both searches
+ * share one parent array, with a bit set marking the cells reached from the goal. In a perfect
+ * maze the result is the same path a plain breadth-first search finds.
+ */
+final class BidirectionalSolver {
+
+    /**
+     * Utility class.
+     */
+    private BidirectionalSolver() {
+    }
+
+    /**
+     * Find the shortest path between two cells.
+     *
+     * @param walls the grid to search
+     * @param from  the starting cell
+     * @param to    the goal cell
+     * @return the shortest path, or null if the goal is unreachable
+     */
+    static MazePath solve(final WallGrid walls, final int from, final int to) {
+        if (from == to) {
+            return new MazePath(walls.x(from), walls.y(from), new byte[0], 0);
+        }
+        int[] parent = new int[walls.size()];
+        Arrays.fill(parent, -1);
+        long[] fromGoal = new long[(walls.size() + 63) >>> 6];
+        parent[from] = from;
+        parent[to] = to;
+        fromGoal[to >>> 6] |= 1L << to;
+
+        IntQueue forward = new IntQueue();
+        IntQueue backward = new IntQueue();
+        forward.add(from);
+        backward.add(to);
+        long expanded = 0;
+
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            boolean goalSide = backward.size() < forward.size();
+            IntQueue queue = forward;
+            if (goalSide) {
+                queue = backward;
+            }
+            for (int level = queue.size(); level > 0; level--) {
+                int cell = queue.remove();
+                expanded++;
+
+                int open = walls.mask(cell);
+                for (int direction = WallGrid.UP; direction <= WallGrid.LEFT; direction++) {
+                    if ((open & (1 << direction)) == 0) {
+                        continue;
+                    }
+                    int neighbor = walls.neighbor(cell, direction);
+                    if (parent[neighbor] == -1) {
+                        parent[neighbor] = cell;
+                        if (goalSide) {
+                            fromGoal[neighbor >>> 6] |= 1L << neighbor;
+                        }
+                        queue.add(neighbor);
+                        continue;
+                    }
+                    boolean neighborSide = (fromGoal[neighbor >>> 6] & (1L << neighbor)) != 0;
+                    if (neighborSide == goalSide) {
+                        continue;
+                    }
+                    if (goalSide) {
+                        return join(walls, parent, from, to, neighbor, cell, expanded);
+                    }
+                    return join(walls, parent, from, to, cell, neighbor, expanded);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Join the two halves of a path where the searches met.
+     *
+     * @param walls    the grid being searched
+     * @param parent   the shared parent array
+     * @param from     the starting cell
+     * @param to       the goal cell
+     * @param near     the meeting cell reached from the start
+     * @param far      the neighboring meeting cell reached from the goal
+     * @param expanded how many cells were expanded
+     * @return the joined path
+     */
+    private static MazePath join(final WallGrid walls, final int[] parent, final int from,
+                                 final int to, final int near, final int far,
+                                 final long expanded) {
+        byte[] head = MazePath.fromParents(walls, parent, from, near);
+        int tailLength = 0;
+        for (int cell = far; cell != to; cell = parent[cell]) {
+            tailLength++;
+        }
+        byte[] steps = Arrays.copyOf(head, head.length + 1 + tailLength);
+        int step = head.length;
+        steps[step++] = (byte) walls.direction(near, far);
+        for (int cell = far; cell != to; cell = parent[cell]) {
+            steps[step++] = (byte) walls.direction(cell, parent[cell]);
+        }
+        return new MazePath(walls.x(from), walls.y(from), steps, expanded);
+    }
+}
@@ -0,0 +1,362 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An effectively unbounded maze built from fixed-size chunks generated on demand.
+ * <p>
+ * Each chunk is a perfect maze carved from a seed derived from the maze seed and the chunk's
+ * coordinates, so a chunk that has been evicted comes back exactly the same. Neighboring chunks
+ * are joined by one passage along each shared edge, placed at an offset hashed from the chunk
+ * coordinates. Only a bounded number of chunks are kept, and the least recently entered chunk is
+ * evicted first, so memory stays bounded no matter how far the agent roams.
+ * <p>
+ * Movement works exactly as on {@link Maze}. Coordinates may be negative; the edges of the
+ * {@code int} range act as solid walls.
+ */
+public final class ChunkedMaze {
+
+    /**
+     * The default chunk width and height, in cells.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    /**
+     * The default number of chunks kept in memory.
+     */
+    public static final int DEFAULT_MAX_CHUNKS = 1024;
+
+    /**
+     * Salt for the passage along each chunk's top edge.
+     */
+    private static final long TOP_DOOR = 1;
+
+    /**
+     * Salt for the passage along each chunk's right edge.
+     */
+    private static final long RIGHT_DOOR = 2;
+
+    /**
+     * Salt for each chunk's generation seed.
+     */
+    private static final long CHUNK_SEED = 3;
+
+    /**
+     * The maze seed.
+     */
+    private final long seed;
+
+    /**
+     * The chunk width and height, in cells.
+     */
+    private final int chunkSize;
+
+    /**
+     * The generator used inside each chunk.
+     */
+    private final MazeGenerator generator;
+
+    /**
+     * Resident chunks by packed chunk coordinates, in least recently entered order.
+     */
+    private final Map<Long, WallGrid> chunks;
+
+    /**
+     * Packed coordinates of the chunk holding the current location.
+     */
+    private long currentKey;
+
+    /**
+     * The chunk holding the current location, or null before the first lookup.
+     */
+    private WallGrid currentChunk;
+
+    /**
+     * Create a new chunked maze with default settings.
+     *
+     * @param setSeed the maze seed
+     */
+    public ChunkedMaze(final long setSeed) {
+        this(setSeed, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNKS, Maze.Algorithm.BACKTRACKER);
+    }
+
+    /**
+     * Create a new chunked maze.
+     *
+     * @param setSeed      the maze seed
+     * @param setChunkSize the chunk width and height, in cells
+     * @param maxChunks    the number of chunks kept in memory
+     * @param setGenerator the generator used inside each chunk
+     */
+    public ChunkedMaze(final long setSeed, final int setChunkSize, final int maxChunks,
+                       final MazeGenerator setGenerator) {
+        if (setChunkSize < 2) {
+            throw new IllegalArgumentException("chunk size too small");
+        }
+        if (maxChunks < 1) {
+            throw new IllegalArgumentException("must keep at least one chunk");
+        }
+        seed = setSeed;
+        chunkSize = setChunkSize;
+        generator = setGenerator;
+        chunks = new LinkedHashMap<Long, WallGrid>(16, 0.75f, true) {
+            /**
+             * Serialization version.
+             */
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, WallGrid> eldest) {
+                return size() > maxChunks;
+            }
+        };
+    }
+
+    /**
+     * Get the number of chunks currently in memory.
+     *
+     * @return the number of resident chunks
+     */
+    public int getResidentChunks() {
+        return chunks.size();
+    }
+
+    /**
+     * The current X coordinate.
+     */
+    private int currentX;
+
+    /**
+     * The current Y coordinate.
+     */
+    private int currentY;
+
+    /**
+     * Whether a start location has been set.
+     */
+    private boolean started;
+
+    /**
+     * The end X coordinate.
+     */
+    private int endX;
+
+    /**
+     * The end Y coordinate.
+     */
+    private int endY;
+
+    /**
+     * Whether an end location has been set.
+     */
+    private boolean ended;
+
+    /**
+     * The current movement direction.
+     */
+    private Maze.Direction currentDirection = Maze.Direction.UP;
+
+    /**
+     * Start the maze at a specific location.
+     *
+     * @param x the starting X coordinate
+     * @param y the starting Y coordinate
+     */
+    public void startAt(final int x, final int y) {
+        currentX = x;
+        currentY = y;
+        started = true;
+    }
+
+    /**
+     * Start the maze at (0, 0).
+     */
+    public void startAtZero() {
+        startAt(0, 0);
+    }
+
+    /**
+     * Get the current location.
+     *
+     * @return the current location, or null if it has not been set
+     */
+    public Maze.Location getCurrentLocation() {
+        if (!started) {
+            return null;
+        }
+        return new Maze.Location(currentX, currentY);
+    }
+
+    /**
+     * End the maze at a specific location.
+     *
+     * @param x the ending X coordinate
+     * @param y the ending Y coordinate
+     */
+    public void endAt(final int x, final int y) {
+        endX = x;
+        endY = y;
+        ended = true;
+    }
+
+    /**
+     * Get the end location.
+     *
+     * @return the end location, or null if it has not been set
+     */
+    public Maze.Location getEndLocation() {
+        if (!ended) {
+            return null;
+        }
+        return new Maze.Location(endX, endY);
+    }
+
+    /**
+     * Get the current movement direction.
+     *
+     * @return the current movement direction
+     */
+    public Maze.Direction getCurrentDirection() {
+        return currentDirection;
+    }
+
+    /**
+     * Attempt to move forward in the given direction. Returns true if the move succeeded, and false
+     * if a wall is in the way.
+     *
+     * @return true if the move completed, false if it did not
+     */
+    public boolean move() {
+        if (!canMove()) {
+            return false;
+        }
+        currentX += currentDirection.dx();
+        currentY += currentDirection.dy();
+        return true;
+    }
+
+    /**
+     * Return if you can move in the current direction.
+     *
+     * @return true if you can, false if a wall is in the way
+     */
+    public boolean canMove() {
+        // The edges of the int range are checked first, since they need not fall on chunk
+        // boundaries.
+        int chunkX = Math.floorDiv(currentX, chunkSize);
+        int chunkY = Math.floorDiv(currentY, chunkSize);
+        int localX = currentX - chunkX * chunkSize;
+        int localY = currentY - chunkY * chunkSize;
+        switch (currentDirection) {
+            case UP:
+                if (currentY == Integer.MAX_VALUE) {
+                    return false;
+                }
+                if (localY < chunkSize - 1) {
+                    break;
+                }
+                return localX == door(chunkX, chunkY, TOP_DOOR);
+            case RIGHT:
+                if (currentX == Integer.MAX_VALUE) {
+                    return false;
+                }
+                if (localX < chunkSize - 1) {
+                    break;
+                }
+                return localY == door(chunkX, chunkY, RIGHT_DOOR);
+            case DOWN:
+                if (currentY == Integer.MIN_VALUE) {
+                    return false;
+                }
+                if (localY > 0) {
+                    break;
+                }
+                return localX == door(chunkX, chunkY - 1, TOP_DOOR);
+            case LEFT:
+                if (currentX == Integer.MIN_VALUE) {
+                    return false;
+                }
+                if (localX > 0) {
+                    break;
+                }
+                return localY == door(chunkX - 1, chunkY, RIGHT_DOOR);
+            default:
+                throw new IllegalStateException("invalid direction");
+        }
+        WallGrid chunk = chunk(chunkX, chunkY);
+        return chunk.isOpen(chunk.index(localX, localY), currentDirection.ordinal());
+    }
+
+    /**
+     * Turn left.
+     */
+    public void turnLeft() {
+        currentDirection = currentDirection.turnLeft();
+    }
+
+    /**
+     * Turn right.
+     */
+    public void turnRight() {
+        currentDirection = currentDirection.turnRight();
+    }
+
+    /**
+     * Return true when you have completed the maze.
+     *
+     * @return true if you are at the maze end point, false otherwise
+     */
+    public boolean isFinished() {
+        return started && ended && currentX == endX && currentY == endY;
+    }
+
+    /**
+     * Get a chunk, generating it if it is not resident.
+     *
+     * @param chunkX the chunk X coordinate
+     * @param chunkY the chunk Y coordinate
+     * @return the chunk's walls
+     */
+    private WallGrid chunk(final int chunkX, final int chunkY) {
+        long key = ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+        if (currentChunk != null && key == currentKey) {
+            return currentChunk;
+        }
+        WallGrid chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = new WallGrid(chunkSize, chunkSize);
+            generator.generate(chunk, new Random(hash(chunkX, chunkY, CHUNK_SEED)));
+            chunks.put(key, chunk);
+        }
+        currentKey = key;
+        currentChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Get the offset of the passage along one edge of a chunk.
+     *
+     * @param chunkX the chunk X coordinate
+     * @param chunkY the chunk Y coordinate
+     * @param edge   which edge: {@link #TOP_DOOR} or {@link #RIGHT_DOOR}
+     * @return the offset along the edge, in cells
+     */
+    private int door(final int chunkX, final int chunkY, final long edge) {
+        return (int) Long.remainderUnsigned(hash(chunkX, chunkY, edge), chunkSize);
+    }
+
+    /**
+     * Hash the maze seed together with chunk coordinates and a salt.
+     *
+     * @param chunkX the chunk X coordinate
+     * @param chunkY the chunk Y coordinate
+     * @param salt   what the hash is for
+     * @return a well-mixed 64-bit hash
+     */
+    private long hash(final int chunkX, final int chunkY, final long salt) {
+        long h = seed ^ (chunkX * 0x9E3779B97F4A7C15L) ^ (chunkY * 0xC2B2AE3D27D4EB4FL) ^ salt;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,29 @@
+import java.util.Random;
+
+/**
+ * Generates mazes using Eller's algorithm.
+ * <p>
+ * The maze is carved one row at a time, from the bottom up, by {@link EllerRows}. Only the set
+ * membership of the current row is kept, so the working state is a handful of arrays as wide as
+ * the maze. See {@link EllerStream} for mazes too large to hold in a grid.
+ */
+final class EllerGenerator implements MazeGenerator {
+
+    @Override
+    public void generate(final WallGrid walls, final Random random) {
+        int width = walls.getWidth();
+        int height = walls.getHeight();
+        EllerRows rows = new EllerRows(width, WallGrid.UP, random);
+        for (int y = 0; y < height; y++) {
+            byte[] row = rows.next(y == height - 1);
+            for (int x = 0; x < width; x++) {
+                if ((row[x] & (1 << WallGrid.RIGHT)) != 0) {
+                    walls.carve(walls.index(x, y), WallGrid.RIGHT);
+                }
+                if ((row[x] & (1 << WallGrid.UP)) != 0) {
+                    walls.carve(walls.index(x, y), WallGrid.UP);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The row-at-a-time core of Eller's algorithm.
+ * <p>
+ * Only the set membership of the current row is kept, so the working state is a handful of
+ * arrays as wide as the maze no matter how many rows are produced. Within a row, adjacent cells
+ * in different sets are joined at random; each set then opens at least one passage forward into
+ * the next row, and cells without one start new sets there. The last row joins every remaining
+ * set.
+ */
+final class EllerRows {
+
+    /**
+     * The width of each row, in cells.
+     */
+    private final int width;
+
+    /**
+     * The border bit for passages into the next row.
+     */
+    private final int forward;
+
+    /**
+     * The source of randomness.
+     */
+    private final Random random;
+
+    /**
+     * The set label of each cell in the current row.
+     */
+    private int[] sets;
+
+    /**
+     * Set labels being assigned to the next row.
+     */
+    private int[] nextSets;
+
+    /**
+     * Union-find forest over the set labels of the current row.
+     */
+    private final int[] parent;
+
+    /**
+     * Cells of each set not yet considered for a forward passage.
+     */
+    private final int[] remaining;
+
+    /**
+     * Whether each set already has a forward passage.
+     */
+    private final boolean[] connected;
+
+    /**
+     * Whether each set label is in use in the next row.
+     */
+    private final boolean[] used;
+
+    /**
+     * Open borders of each cell in the current row.
+     */
+    private final byte[] row;
+
+    /**
+     * Open borders carried into the next row from the current one.
+     */
+    private final byte[] incoming;
+
+    /**
+     * Create a new row generator.
+     *
+     * @param setWidth   the width of each row, in cells
+     * @param setForward the border bit for passages into the next row
+     * @param setRandom  the source of randomness
+     */
+    EllerRows(final int setWidth, final int setForward, final Random setRandom) {
+        if (setWidth < 1) {
+            throw new IllegalArgumentException("width too small");
+        }
+        width = setWidth;
+        forward = setForward;
+        random = setRandom;
+        sets = new int[width];
+        nextSets = new int[width];
+        parent = new int[width];
+        remaining = new int[width];
+        connected = new boolean[width];
+        used = new boolean[width];
+        row = new byte[width];
+        incoming = new byte[width];
+        for (int x = 0; x < width; x++) {
+            sets[x] = x;
+        }
+    }
+
+    /**
+     * Carve the next row.
+     * <p>
+     * The returned array holds the open-border mask of each cell in the row, using the same bits
+     * as {@link WallGrid}. It is reused by the next call.
+     *
+     * @param lastRow whether this is the final row
+     * @return the open borders of each cell in the row
+     */
+    byte[] next(final boolean lastRow) {
+        System.arraycopy(incoming, 0, row, 0, width);
+        for (int set = 0; set < width; set++) {
+            parent[set] = set;
+        }
+        for (int x = 0; x < width - 1; x++) {
+            int left = find(sets[x]);
+            int right = find(sets[x + 1]);
+            if (left != right && (lastRow || random.nextBoolean())) {
+                row[x] |= 1 << WallGrid.RIGHT;
+                row[x + 1] |= 1 << WallGrid.LEFT;
+                parent[right] = left;
+            }
+        }
+        if (lastRow) {
+            return row;
+        }
+
+        Arrays.fill(remaining, 0);
+        Arrays.fill(connected, false);
+        Arrays.fill(used, false);
+        for (int x = 0; x < width; x++) {
+            sets[x] = find(sets[x]);
+            remaining[sets[x]]++;
+        }
+        int backward = 1 << ((forward + 2) & 3);
+        for (int x = 0; x < width; x++) {
+            int set = sets[x];
+            remaining[set]--;
+            if (random.nextBoolean() || (remaining[set] == 0 && !connected[set])) {
+                row[x] |= 1 << forward;
+                incoming[x] = (byte) backward;
+                connected[set] = true;
+                used[set] = true;
+                nextSets[x] = set;
+            } else {
+                incoming[x] = 0;
+                nextSets[x] = -1;
+            }
+        }
+        int free = 0;
+        for (int x = 0; x < width; x++) {
+            if (nextSets[x] != -1) {
+                continue;
+            }
+            while (used[free]) {
+                free++;
+            }
+            used[free] = true;
+            nextSets[x] = free;
+        }
+        int[] swap = sets;
+        sets = nextSets;
+        nextSets = swap;
+        return row;
+    }
+
+    /**
+     * Find the root of a set within the current row, halving the path as we go.
+     *
+     * @param set the set label
+     * @return the root label
+     */
+    private int find(final int set) {
+        int current = set;
+        while (parent[current] != current) {
+            parent[current] = parent[parent[current]];
+            current = parent[current];
+        }
+        return current;
+    }
+}
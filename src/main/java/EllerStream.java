@@ -0,0 +1,215 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+/**
+ * Generates a maze one row at a time without ever holding the whole maze in memory.
+ * <p>
+ * Rows are carved by Eller's algorithm and handed to a {@link RowSink} as soon as they are
+ * finished, starting from the top row, so memory use is proportional to the width alone. This
+ * makes mazes far taller than a {@link Maze} can hold, such as 10,000 by 50,000,000, practical
+ * to produce. Sinks are provided for the {@link Maze#toString()} drawing format and for a packed
+ * binary format.
+ */
+public final class EllerStream {
+
+    /**
+     * Receives the rows of a streamed maze.
+     */
+    public interface RowSink {
+
+        /**
+         * Accept the next row. Rows arrive from the top of the maze down, ending with row 0.
+         * <p>
+         * The row holds the open-border mask of each cell: bit 0 up, bit 1 right, bit 2 down and
+         * bit 3 left. The array is reused for the next row.
+         *
+         * @param y   the row's Y coordinate
+         * @param row the open borders of each cell
+         * @throws IOException if the row could not be written
+         */
+        void accept(int y, byte[] row) throws IOException;
+    }
+
+    /**
+     * The maze width, in cells.
+     */
+    private final int width;
+
+    /**
+     * The maze height, in cells.
+     */
+    private final int height;
+
+    /**
+     * The source of randomness.
+     */
+    private final Random random;
+
+    /**
+     * Create a new streamed maze from a seed.
+     *
+     * @param setWidth  the maze width, in cells
+     * @param setHeight the maze height, in cells
+     * @param seed      the random seed
+     */
+    public EllerStream(final int setWidth, final int setHeight, final long seed) {
+        this(setWidth, setHeight, new Random(seed));
+    }
+
+    /**
+     * Create a new streamed maze.
+     *
+     * @param setWidth  the maze width, in cells
+     * @param setHeight the maze height, in cells
+     * @param setRandom the source of randomness
+     */
+    public EllerStream(final int setWidth, final int setHeight, final Random setRandom) {
+        if (setWidth < 1) {
+            throw new IllegalArgumentException("width too small");
+        }
+        if (setHeight < 1) {
+            throw new IllegalArgumentException("height too small");
+        }
+        width = setWidth;
+        height = setHeight;
+        random = setRandom;
+    }
+
+    /**
+     * Generate the maze, passing each row to a sink as it is finished.
+     *
+     * @param sink the sink to receive the rows
+     * @throws IOException if the sink fails
+     */
+    public void generate(final RowSink sink) throws IOException {
+        EllerRows rows = new EllerRows(width, WallGrid.DOWN, random);
+        for (int y = height - 1; y >= 0; y--) {
+            sink.accept(y, rows.next(y == 0));
+        }
+    }
+
+    /**
+     * Create a sink that draws the maze in the {@link Maze#toString()} format.
+     *
+     * @param out where to write the drawing
+     * @return the sink
+     */
+    public static RowSink textSink(final Appendable out) {
+        return new TextSink(out);
+    }
+
+    /**
+     * Create a sink that writes each row as packed nibbles, two cells per byte with the even
+     * column in the low nibble.
+     *
+     * @param channel where to write the rows
+     * @return the sink
+     */
+    public static RowSink binarySink(final WritableByteChannel channel) {
+        return new BinarySink(channel);
+    }
+
+    /**
+     * Writes streamed rows as packed nibbles.
+     */
+    private static final class BinarySink implements RowSink {
+
+        /**
+         * Where to write the rows.
+         */
+        private final WritableByteChannel channel;
+
+        /**
+         * Buffer for one packed row, or null before the first row.
+         */
+        private ByteBuffer buffer;
+
+        /**
+         * Create a new binary sink.
+         *
+         * @param setChannel where to write the rows
+         */
+        BinarySink(final WritableByteChannel setChannel) {
+            channel = setChannel;
+        }
+
+        @Override
+        public void accept(final int y, final byte[] row) throws IOException {
+            if (buffer == null) {
+                buffer = ByteBuffer.allocate((row.length + 1) >>> 1);
+            }
+            buffer.clear();
+            for (int x = 0; x < row.length; x += 2) {
+                int packed = row[x];
+                if (x + 1 < row.length) {
+                    packed |= row[x + 1] << 4;
+                }
+                buffer.put((byte) packed);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Draws streamed rows as text, holding back one row to draw the walls below it.
+     */
+    private static final class TextSink implements RowSink {
+
+        /**
+         * Where to write the drawing.
+         */
+        private final Appendable out;
+
+        /**
+         * The previous row, or null before the first row.
+         */
+        private byte[] previous;
+
+        /**
+         * Buffer for one line of text.
+         */
+        private char[] line;
+
+        /**
+         * Create a new text sink.
+         *
+         * @param setOut where to write the drawing
+         */
+        TextSink(final Appendable setOut) {
+            out = setOut;
+        }
+
+        @Override
+        public void accept(final int y, final byte[] row) throws IOException {
+            int width = row.length;
+            if (previous == null) {
+                previous = new byte[width];
+                line = new char[AsciiRows.lineLength(width)];
+                write(AsciiRows.wallLine(null, row, width, line, 0));
+            } else {
+                write(AsciiRows.wallLine(previous, row, width, line, 0));
+            }
+            write(AsciiRows.cellLine(row, width, -1, -1, line, 0));
+            if (y == 0) {
+                write(AsciiRows.wallLine(row, null, width, line, 0));
+            }
+            System.arraycopy(row, 0, previous, 0, width);
+        }
+
+        /**
+         * Write the start of the line buffer.
+         *
+         * @param length how many characters to write
+         * @throws IOException if the write fails
+         */
+        private void write(final int length) throws IOException {
+            out.append(CharBuffer.wrap(line, 0, length));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Checks that a wall grid holds a well-formed perfect maze.
+ * <p>
+ * Cell checks make sure the outer walls are closed and that every border agrees with the
+ * matching border of its neighbor. The full check also counts passages and floods the grid to
+ * prove that there are exactly one fewer passages than cells and a single connected component,
+ * which together mean that there is exactly one path between any two cells.
+ */
+final class GridVerifier {
+
+    /**
+     * How many cells the sampled check looks at.
+     */
+    static final int SAMPLE_SIZE = 4096;
+
+    /**
+     * Utility class.
+     */
+    private GridVerifier() {
+    }
+
+    /**
+     * Check a random sample of cells.
+     *
+     * @param walls  the grid to check
+     * @param random the source of randomness
+     */
+    static void sampled(final WallGrid walls, final Random random) {
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            checkCell(walls, random.nextInt(walls.size()));
+        }
+    }
+
+    /**
+     * Check every cell, splitting the rows across cores, then check that the grid is a tree.
+     *
+     * @param walls the grid to check
+     */
+    static void full(final WallGrid walls) {
+        long passages = IntStream.range(0, walls.getHeight()).parallel()
+                .mapToLong(y -> checkRow(walls, y)).sum();
+        if (passages != walls.size() - 1) {
+            throw new IllegalStateException("maze has " + passages + " passages, expected "
+                    + (walls.size() - 1));
+        }
+        if (reachable(walls) != walls.size()) {
+            throw new IllegalStateException("maze is not connected");
+        }
+    }
+
+    /**
+     * Check every cell in a row.
+     *
+     * @param walls the grid to check
+     * @param y     the row's Y coordinate
+     * @return the number of up and right passages in the row
+     */
+    private static long checkRow(final WallGrid walls, final int y) {
+        long passages = 0;
+        int start = walls.index(0, y);
+        for (int cell = start; cell < start + walls.getWidth(); cell++) {
+            checkCell(walls, cell);
+            int mask = walls.mask(cell);
+            passages += (mask & 1) + ((mask >>> 1) & 1);
+        }
+        return passages;
+    }
+
+    /**
+     * Check a single cell's outer walls and its agreement with its neighbors.
+     *
+     * @param walls the grid to check
+     * @param cell  the cell index
+     */
+    private static void checkCell(final WallGrid walls, final int cell) {
+        int neighbors = walls.neighborMask(cell);
+        int open = walls.mask(cell);
+        if ((open & ~neighbors & (1 << WallGrid.UP)) != 0) {
+            throw new IllegalStateException("top row should have this border");
+        }
+        if ((open & ~neighbors & (1 << WallGrid.DOWN)) != 0) {
+            throw new IllegalStateException("bottom row should have this border");
+        }
+        if ((open & ~neighbors & (1 << WallGrid.RIGHT)) != 0) {
+            throw new IllegalStateException("right column should have this border");
+        }
+        if ((open & ~neighbors & (1 << WallGrid.LEFT)) != 0) {
+            throw new IllegalStateException("left column should have this border");
+        }
+        for (int direction = WallGrid.UP; direction <= WallGrid.LEFT; direction++) {
+            if ((neighbors & (1 << direction)) == 0) {
+                continue;
+            }
+            int neighbor = walls.neighbor(cell, direction);
+            if (walls.isOpen(cell, direction)
+                    != walls.isOpen(neighbor, (direction + 2) & 3)) {
+                throw new IllegalStateException("mismatched neigbor borders");
+            }
+        }
+    }
+
+    /**
+     * Count the cells reachable from cell 0.
+     *
+     * @param walls the grid to check
+     * @return the number of reachable cells
+     */
+    private static int reachable(final WallGrid walls) {
+        long[] seen = new long[(walls.size() + 63) >>> 6];
+        int[] stack = new int[walls.size()];
+        int stackSize = 0;
+        int count = 1;
+        stack[stackSize++] = 0;
+        seen[0] = 1L;
+        while (stackSize > 0) {
+            int cell = stack[--stackSize];
+            int open = walls.mask(cell);
+            for (int direction = WallGrid.UP; direction <= WallGrid.LEFT; direction++) {
+                if ((open & (1 << direction)) == 0) {
+                    continue;
+                }
+                int neighbor = walls.neighbor(cell, direction);
+                if ((seen[neighbor >>> 6] & (1L << neighbor)) != 0) {
+                    continue;
+                }
+                seen[neighbor >>> 6] |= 1L << neighbor;
+                stack[stackSize++] = neighbor;
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * A precomputed table of the best direction to move from every cell towards a fixed goal.
+ * <p>
+ * The table is filled by a single breadth-first search outward from the goal, and each cell's
+ * direction takes two bits, thirty-two cells to a {@code long}. Lookups are constant time. The
+ * table never changes after it is built, so one instance can be shared by any number of threads.
+ */
+public final class HintTable {
+
+    /**
+     * The grid the table was built for.
+     */
+    private final WallGrid walls;
+
+    /**
+     * The goal cell.
+     */
+    private final int goal;
+
+    /**
+     * Packed two-bit directions, thirty-two cells to a word.
+     */
+    private final long[] directions;
+
+    /**
+     * Build a table for a grid holding a perfect maze.
+     *
+     * @param setWalls the grid
+     * @param setGoal  the goal cell
+     */
+    HintTable(final WallGrid setWalls, final int setGoal) {
+        walls = setWalls;
+        goal = setGoal;
+        directions = new long[(walls.size() + 31) >>> 5];
+
+        long[] seen = new long[(walls.size() + 63) >>> 6];
+        seen[goal >>> 6] |= 1L << goal;
+        IntQueue queue = new IntQueue();
+        queue.add(goal);
+        while (!queue.isEmpty()) {
+            int cell = queue.remove();
+            int open = walls.mask(cell);
+            for (int direction = WallGrid.UP; direction <= WallGrid.LEFT; direction++) {
+                if ((open & (1 << direction)) == 0) {
+                    continue;
+                }
+                int neighbor = walls.neighbor(cell, direction);
+                if ((seen[neighbor >>> 6] & (1L << neighbor)) != 0) {
+                    continue;
+                }
+                seen[neighbor >>> 6] |= 1L << neighbor;
+                long back = (direction + 2) & 3;
+                directions[neighbor >>> 5] |= back << ((neighbor & 31) << 1);
+                queue.add(neighbor);
+            }
+        }
+    }
+
+    /**
+     * Get the goal cell the table was built for.
+     *
+     * @return the goal cell
+     */
+    int getGoal() {
+        return goal;
+    }
+
+    /**
+     * Get the best direction to move from a cell.
+     *
+     * @param cell the cell index
+     * @return the direction ordinal of the first step towards the goal
+     */
+    int direction(final int cell) {
+        return (int) (directions[cell >>> 5] >>> ((cell & 31) << 1)) & 3;
+    }
+
+    /**
+     * Get the best direction to move from a location.
+     *
+     * @param location the location
+     * @return the first step towards the goal, or null at the goal itself
+     * @throws Maze.LocationException if the location is outside the maze
+     */
+    public Maze.Direction bestDirection(final Maze.Location location)
+            throws Maze.LocationException {
+        if (location.x() < 0 || location.x() >= walls.getWidth()
+                || location.y() < 0 || location.y() >= walls.getHeight()) {
+            throw new Maze.LocationException(location + " is not a valid location");
+        }
+        int cell = walls.index(location.x(), location.y());
+        if (cell == goal) {
+            return null;
+        }
+        return Maze.Direction.of(direction(cell));
+    }
+}
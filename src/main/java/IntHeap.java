@@ -0,0 +1,108 @@
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of {@code int} values ordered by {@code int} keys.
+ * <p>
+ * Each entry is packed into one {@code long} with the key above the value, so nothing is boxed
+ * and entries with equal keys come out in order of value.
+ */
+final class IntHeap {
+
+    /**
+     * The packed entries, in heap order.
+     */
+    private long[] heap;
+
+    /**
+     * Number of entries in the heap.
+     */
+    private int count;
+
+    /**
+     * Create a new empty heap.
+     *
+     * @param capacity the initial number of entries to make room for, at least one
+     */
+    IntHeap(final int capacity) {
+        heap = new long[capacity];
+    }
+
+    /**
+     * Return whether the heap is empty.
+     *
+     * @return true if there are no entries
+     */
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Remove all entries, keeping the storage for reuse.
+     */
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * Add an entry, growing the storage if it is full.
+     *
+     * @param key   the key to order by
+     * @param value the value
+     */
+    void add(final int key, final int value) {
+        if (count == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * heap.length);
+        }
+        long entry = ((long) key << 32) | (value & 0xFFFFFFFFL);
+        int current = count++;
+        while (current > 0) {
+            int parent = (current - 1) >>> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[current] = heap[parent];
+            current = parent;
+        }
+        heap[current] = entry;
+    }
+
+    /**
+     * Get the smallest key in the heap. The heap must not be empty.
+     *
+     * @return the key
+     */
+    int minKey() {
+        return (int) (heap[0] >>> 32);
+    }
+
+    /**
+     * Remove the entry with the smallest key. The heap must not be empty.
+     *
+     * @return the entry's value
+     */
+    int remove() {
+        int value = (int) heap[0];
+        count--;
+        if (count == 0) {
+            return value;
+        }
+        long entry = heap[count];
+        int current = 0;
+        while (true) {
+            int child = 2 * current + 1;
+            if (child >= count) {
+                break;
+            }
+            if (child + 1 < count && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (entry <= heap[child]) {
+                break;
+            }
+            heap[current] = heap[child];
+            current = child;
+        }
+        heap[current] = entry;
+        return value;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * A first-in, first-out queue of {@code int} values in a growable ring buffer.
+ */
+final class IntQueue {
+
+    /**
+     * The ring buffer. Its length is always a power of two.
+     */
+    private int[] ring = new int[1024];
+
+    /**
+     * Index of the first value.
+     */
+    private int head;
+
+    /**
+     * Number of values in the queue.
+     */
+    private int count;
+
+    /**
+     * Get the number of values in the queue.
+     *
+     * @return the number of values
+     */
+    int size() {
+        return count;
+    }
+
+    /**
+     * Return whether the queue is empty.
+     *
+     * @return true if there are no values
+     */
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Add a value at the back of the queue, growing the buffer if it is full.
+     *
+     * @param value the value to add
+     */
+    void add(final int value) {
+        if (count == ring.length) {
+            int[] grown = new int[2 * ring.length];
+            int tail = ring.length - head;
+            System.arraycopy(ring, head, grown, 0, tail);
+            System.arraycopy(ring, 0, grown, tail, head);
+            ring = grown;
+            head = 0;
+        }
+        ring[(head + count) & (ring.length - 1)] = value;
+        count++;
+    }
+
+    /**
+     * Remove the value at the front of the queue. The queue must not be empty.
+     *
+     * @return the value
+     */
+    int remove() {
+        int value = ring[head];
+        head = (head + 1) & (ring.length - 1);
+        count--;
+        return value;
+    }
+}
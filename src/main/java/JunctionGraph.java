@@ -0,0 +1,433 @@
+import java.util.Arrays;
+
+/**
+ * A smaller graph derived from a maze by collapsing every corridor into a single edge.
+ * <p>
+ * Cells with exactly two open borders are corridor cells. Every other cell, a junction or a dead
+ * end, becomes a node, and each run of corridor cells between two nodes becomes one edge weighted
+ * by its length in steps. Edges are stored in compressed adjacency arrays along with the
+ * direction of their first step, which is enough to walk the corridor again and recover the
+ * cells it covers. Searches run over the nodes and expand the result back into a cell path.
+ * <p>
+ * The adjacency is public, so other searches such as breadth-first or A* can walk the graph
+ * too: each node's edges are numbered from {@link #getEdgeStart(int)} up to
+ * {@link #getEdgeEnd(int)}, and {@link #getEdgeTarget(int)} gives the node at the far end.
+ * <p>
+ * The graph never changes after it is built, so it can be shared across threads.
+ */
+public final class JunctionGraph {
+
+    /**
+     * The grid the graph was built from.
+     */
+    private final WallGrid walls;
+
+    /**
+     * The cell of each node, in increasing order.
+     */
+    private final int[] nodeCells;
+
+    /**
+     * Where each node's edges start in the edge arrays, plus a final entry past the end.
+     */
+    private final int[] edgeStart;
+
+    /**
+     * The node at the far end of each edge.
+     */
+    private final int[] edgeTarget;
+
+    /**
+     * The length of each edge in steps.
+     */
+    private final int[] edgeLength;
+
+    /**
+     * The direction of each edge's first step.
+     */
+    private final byte[] edgeDirection;
+
+    /**
+     * Build the graph for a grid.
+     *
+     * @param setWalls the grid
+     */
+    JunctionGraph(final WallGrid setWalls) {
+        walls = setWalls;
+        int size = walls.size();
+        int nodes = 0;
+        int edges = 0;
+        for (int cell = 0; cell < size; cell++) {
+            int degree = Integer.bitCount(walls.mask(cell));
+            if (degree != 2) {
+                nodes++;
+                edges += degree;
+            }
+        }
+        nodeCells = new int[nodes];
+        edgeStart = new int[nodes + 1];
+        edgeTarget = new int[edges];
+        edgeLength = new int[edges];
+        edgeDirection = new byte[edges];
+
+        int node = 0;
+        for (int cell = 0; cell < size; cell++) {
+            if (Integer.bitCount(walls.mask(cell)) != 2) {
+                nodeCells[node++] = cell;
+            }
+        }
+        int edge = 0;
+        for (node = 0; node < nodes; node++) {
+            edgeStart[node] = edge;
+            int cell = nodeCells[node];
+            int open = walls.mask(cell);
+            for (int direction = WallGrid.UP; direction <= WallGrid.LEFT; direction++) {
+                if ((open & (1 << direction)) == 0) {
+                    continue;
+                }
+                long end = walk(cell, direction, -1);
+                edgeTarget[edge] = node((int) end);
+                edgeLength[edge] = (int) (end >>> 32);
+                edgeDirection[edge] = (byte) direction;
+                edge++;
+            }
+        }
+        edgeStart[nodes] = edge;
+    }
+
+    /**
+     * Get the number of nodes.
+     *
+     * @return the number of junctions and dead ends
+     */
+    public int getNodeCount() {
+        return nodeCells.length;
+    }
+
+    /**
+     * Get the number of edges. Each corridor is counted once from each end.
+     *
+     * @return the number of edges
+     */
+    public int getEdgeCount() {
+        return edgeTarget.length;
+    }
+
+    /**
+     * Get the location of a node.
+     *
+     * @param node the node number
+     * @return the location of the junction or dead end
+     */
+    public Maze.Location getNodeLocation(final int node) {
+        int cell = nodeCells[node];
+        return new Maze.Location(walls.x(cell), walls.y(cell));
+    }
+
+    /**
+     * Get the node at a location.
+     *
+     * @param location the location
+     * @return the node number, or -1 if the location is a corridor cell or outside the maze
+     */
+    public int getNode(final Maze.Location location) {
+        if (location.x() < 0 || location.x() >= walls.getWidth()
+                || location.y() < 0 || location.y() >= walls.getHeight()) {
+            return -1;
+        }
+        int node = node(walls.index(location.x(), location.y()));
+        if (node < 0) {
+            return -1;
+        }
+        return node;
+    }
+
+    /**
+     * Get the first edge leaving a node. The node's edges are numbered from this value up to,
+     * but not including, {@link #getEdgeEnd(int)}.
+     *
+     * @param node the node number
+     * @return the first edge number
+     */
+    public int getEdgeStart(final int node) {
+        return edgeStart[node];
+    }
+
+    /**
+     * Get the end of the range of edges leaving a node.
+     *
+     * @param node the node number
+     * @return one past the last edge number
+     */
+    public int getEdgeEnd(final int node) {
+        return edgeStart[node + 1];
+    }
+
+    /**
+     * Get the node an edge leads to.
+     *
+     * @param edge the edge number
+     * @return the node at the far end of the corridor
+     */
+    public int getEdgeTarget(final int edge) {
+        return edgeTarget[edge];
+    }
+
+    /**
+     * Get the direction of an edge's first step out of its starting node.
+     *
+     * @param edge the edge number
+     * @return the direction
+     */
+    public Maze.Direction getEdgeDirection(final int edge) {
+        return Maze.Direction.of(edgeDirection[edge]);
+    }
+
+    /**
+     * Get the length of an edge.
+     *
+     * @param edge the edge number
+     * @return the number of steps along the corridor
+     */
+    public int getEdgeLength(final int edge) {
+        return edgeLength[edge];
+    }
+
+    /**
+     * Get the cells an edge covers, from its starting node to its ending node.
+     *
+     * @param edge the edge number
+     * @return the cells along the corridor, including both nodes
+     */
+    public Maze.Location[] getEdgeRun(final int edge) {
+        int node = Arrays.binarySearch(edgeStart, edge);
+        if (node < 0) {
+            node = -node - 2;
+        }
+        while (edgeStart[node + 1] == edge) {
+            node++;
+        }
+        Maze.Location[] run = new Maze.Location[edgeLength[edge] + 1];
+        int cell = nodeCells[node];
+        int direction = edgeDirection[edge];
+        run[0] = new Maze.Location(walls.x(cell), walls.y(cell));
+        for (int step = 1; step < run.length; step++) {
+            cell = walls.neighbor(cell, direction);
+            run[step] = new Maze.Location(walls.x(cell), walls.y(cell));
+            direction = onward(cell, direction);
+        }
+        return run;
+    }
+
+    /**
+     * Find the shortest path between two cells with Dijkstra's algorithm over the nodes.
+     * <p>
+     * Endpoints inside a corridor are joined to the nodes at either end of it. The path reports
+     * the number of nodes expanded.
+     *
+     * @param from the starting cell
+     * @param to   the goal cell
+     * @return the shortest path, or null if the goal is unreachable
+     */
+    MazePath shortestPath(final int from, final int to) {
+        int startX = walls.x(from);
+        int startY = walls.y(from);
+        if (from == to) {
+            return new MazePath(startX, startY, new byte[0], 0);
+        }
+        int[] sourceNode = new int[2];
+        int[] sourceLength = new int[2];
+        int[] sourceDirection = new int[2];
+        int sources = endpoints(from, sourceNode, sourceLength, sourceDirection);
+        int[] targetNode = new int[2];
+        int[] targetLength = new int[2];
+        int[] targetDirection = new int[2];
+        int targets = endpoints(to, targetNode, targetLength, targetDirection);
+        for (int source = 0; source < sources; source++) {
+            if (sourceDirection[source] == -1) {
+                continue;
+            }
+            long end = walk(from, sourceDirection[source], to);
+            if ((int) end == to) {
+                byte[] steps = new byte[(int) (end >>> 32)];
+                append(steps, 0, from, sourceDirection[source], steps.length);
+                return new MazePath(startX, startY, steps, 0);
+            }
+        }
+
+        int nodes = nodeCells.length;
+        int[] distance = new int[nodes];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        int[] via = new int[nodes];
+        int[] previous = new int[nodes];
+        boolean[] settled = new boolean[nodes];
+        IntHeap heap = new IntHeap(16);
+        for (int source = 0; source < sources; source++) {
+            int node = sourceNode[source];
+            if (sourceLength[source] < distance[node]) {
+                distance[node] = sourceLength[source];
+                via[node] = -1 - source;
+                heap.add(distance[node], node);
+            }
+        }
+
+        long expanded = 0;
+        int best = Integer.MAX_VALUE;
+        int bestTarget = -1;
+        while (!heap.isEmpty()) {
+            int reached = heap.minKey();
+            int node = heap.remove();
+            if (settled[node]) {
+                continue;
+            }
+            if (reached >= best) {
+                break;
+            }
+            settled[node] = true;
+            expanded++;
+            for (int target = 0; target < targets; target++) {
+                if (targetNode[target] == node && distance[node] + targetLength[target] < best) {
+                    best = distance[node] + targetLength[target];
+                    bestTarget = target;
+                }
+            }
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                int next = edgeTarget[edge];
+                int length = distance[node] + edgeLength[edge];
+                if (length < distance[next]) {
+                    distance[next] = length;
+                    via[next] = edge;
+                    previous[next] = node;
+                    heap.add(length, next);
+                }
+            }
+        }
+        if (bestTarget == -1) {
+            return null;
+        }
+
+        byte[] steps = new byte[best];
+        int end = targetNode[bestTarget];
+        int tail = targetLength[bestTarget];
+        if (tail > 0) {
+            byte[] reversed = new byte[tail];
+            append(reversed, 0, to, targetDirection[bestTarget], tail);
+            for (int step = 0; step < tail; step++) {
+                steps[best - 1 - step] = (byte) ((reversed[step] + 2) & 3);
+            }
+        }
+        int position = best - tail;
+        int node = end;
+        while (via[node] >= 0) {
+            int edge = via[node];
+            position -= edgeLength[edge];
+            int origin = previous[node];
+            append(steps, position, nodeCells[origin], edgeDirection[edge], edgeLength[edge]);
+            node = origin;
+        }
+        int source = -1 - via[node];
+        if (sourceLength[source] > 0) {
+            append(steps, 0, from, sourceDirection[source], sourceLength[source]);
+        }
+        return new MazePath(startX, startY, steps, expanded);
+    }
+
+    /**
+     * Find the nodes a search may start or end at for a cell.
+     *
+     * @param cell      the cell
+     * @param node      receives the node numbers
+     * @param length    receives the distance from the cell to each node
+     * @param direction receives the first step from the cell towards each node, or -1
+     * @return how many nodes were found
+     */
+    private int endpoints(final int cell, final int[] node, final int[] length,
+                          final int[] direction) {
+        int open = walls.mask(cell);
+        if (Integer.bitCount(open) != 2) {
+            node[0] = node(cell);
+            length[0] = 0;
+            direction[0] = -1;
+            return 1;
+        }
+        int found = 0;
+        for (int step = WallGrid.UP; step <= WallGrid.LEFT; step++) {
+            if ((open & (1 << step)) == 0) {
+                continue;
+            }
+            long end = walk(cell, step, -1);
+            node[found] = node((int) end);
+            length[found] = (int) (end >>> 32);
+            direction[found] = step;
+            found++;
+        }
+        return found;
+    }
+
+    /**
+     * Write the steps of a walk along a corridor into an array.
+     *
+     * @param steps     the array to fill
+     * @param offset    where to start writing
+     * @param cell      the starting cell
+     * @param direction the first step
+     * @param length    how many steps to write
+     */
+    private void append(final byte[] steps, final int offset, final int cell,
+                        final int direction, final int length) {
+        int current = cell;
+        int heading = direction;
+        for (int step = 0; step < length; step++) {
+            steps[offset + step] = (byte) heading;
+            current = walls.neighbor(current, heading);
+            if (step + 1 < length) {
+                heading = onward(current, heading);
+            }
+        }
+    }
+
+    /**
+     * Walk along a corridor until reaching a node or a given cell.
+     *
+     * @param cell      the starting cell
+     * @param direction the first step
+     * @param stop      a cell to stop at early, or -1
+     * @return the cell reached in the low 32 bits and the number of steps in the high 32 bits
+     */
+    private long walk(final int cell, final int direction, final int stop) {
+        int current = walls.neighbor(cell, direction);
+        int heading = direction;
+        long length = 1;
+        while (current != stop && Integer.bitCount(walls.mask(current)) == 2) {
+            if (length > walls.size()) {
+                throw new IllegalStateException("corridor has no end");
+            }
+            heading = onward(current, heading);
+            current = walls.neighbor(current, heading);
+            length++;
+        }
+        return (length << 32) | current;
+    }
+
+    /**
+     * Get the way out of a corridor cell other than the way we came in.
+     *
+     * @param cell    the corridor cell
+     * @param heading the direction of the step that entered it
+     * @return the direction of the other open border
+     */
+    private int onward(final int cell, final int heading) {
+        int open = walls.mask(cell) & ~(1 << ((heading + 2) & 3));
+        return Integer.numberOfTrailingZeros(open);
+    }
+
+    /**
+     * Get the node number of a node cell.
+     *
+     * @param cell the cell
+     * @return the node number
+     */
+    private int node(final int cell) {
+        return Arrays.binarySearch(nodeCells, cell);
+    }
+}
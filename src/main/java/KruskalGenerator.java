@@ -0,0 +1,59 @@
+import java.util.Random;
+
+/**
+ * Generates mazes using randomized Kruskal's algorithm.
+ * <p>
+ * Every interior wall is listed once, shuffled, and removed whenever the cells on either side
+ * are not yet connected. Connectivity is tracked with a {@link UnionFind} forest. Kruskal mazes
+ * have many short dead ends.
+ */
+final class KruskalGenerator implements MazeGenerator {
+
+    /**
+     * The largest grid whose walls can be numbered in an {@code int}.
+     */
+    private static final int MAX_CELLS = 1 << 30;
+
+    @Override
+    public void generate(final WallGrid walls, final Random random) {
+        int size = walls.size();
+        if (size > MAX_CELLS) {
+            throw new IllegalArgumentException("grid too large for Kruskal's algorithm");
+        }
+        int width = walls.getWidth();
+        int height = walls.getHeight();
+
+        int[] edges = new int[width * (height - 1) + (width - 1) * height];
+        int edgeCount = 0;
+        for (int cell = 0; cell < size; cell++) {
+            int neighbors = walls.neighborMask(cell);
+            if ((neighbors & (1 << WallGrid.UP)) != 0) {
+                edges[edgeCount++] = cell << 1;
+            }
+            if ((neighbors & (1 << WallGrid.RIGHT)) != 0) {
+                edges[edgeCount++] = (cell << 1) | 1;
+            }
+        }
+        for (int i = edgeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = edges[i];
+            edges[i] = edges[j];
+            edges[j] = swap;
+        }
+
+        UnionFind sets = new UnionFind(size);
+        int remaining = size - 1;
+        for (int i = 0; i < edgeCount && remaining > 0; i++) {
+            int cell = edges[i] >>> 1;
+            int direction = WallGrid.UP;
+            if ((edges[i] & 1) != 0) {
+                direction = WallGrid.RIGHT;
+            }
+            if (!sets.union(cell, walls.neighbor(cell, direction))) {
+                continue;
+            }
+            walls.carve(cell, direction);
+            remaining--;
+        }
+    }
+}
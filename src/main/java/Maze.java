@@ -1,10 +1,17 @@
 
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Stack;
+import java.util.OptionalLong;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -151,6 +158,147 @@ public class Maze {
     public static final String[] DIRECTIONS = {new String("up"), new String("right"),
             new String("down"), new String("left")};
 
+    /**
+     * A movement direction. Turns and opposites are computed from the ordinal, which is also the
+     * direction's bit in the wall grid.
+     */
+    public enum Direction {
+
+        /**
+         * Up, towards larger Y values.
+         */
+        UP("up", 0, 1),
+
+        /**
+         * Right, towards larger X values.
+         */
+        RIGHT("right", 1, 0),
+
+        /**
+         * Down, towards smaller Y values.
+         */
+        DOWN("down", 0, -1),
+
+        /**
+         * Left, towards smaller X values.
+         */
+        LEFT("left", -1, 0);
+
+        /**
+         * All directions, indexed by ordinal.
+         */
+        private static final Direction[] BY_ORDINAL = values();
+
+        /**
+         * The direction's name, as used in {@link #DIRECTIONS}.
+         */
+        private final String label;
+
+        /**
+         * The change in the X value.
+         */
+        private final int dx;
+
+        /**
+         * The change in the Y value.
+         */
+        private final int dy;
+
+        /**
+         * Create a new direction.
+         *
+         * @param setLabel the direction's name
+         * @param setDx    the change in the X value
+         * @param setDy    the change in the Y value
+         */
+        Direction(final String setLabel, final int setDx, final int setDy) {
+            label = setLabel;
+            dx = setDx;
+            dy = setDy;
+        }
+
+        /**
+         * Get the change in the X value.
+         *
+         * @return the change in the X value
+         */
+        public int dx() {
+            return dx;
+        }
+
+        /**
+         * Get the change in the Y value.
+         *
+         * @return the change in the Y value
+         */
+        public int dy() {
+            return dy;
+        }
+
+        /**
+         * Get the direction a quarter turn to the left.
+         *
+         * @return the direction to the left
+         */
+        public Direction turnLeft() {
+            return BY_ORDINAL[(ordinal() + 3) & 3];
+        }
+
+        /**
+         * Get the direction a quarter turn to the right.
+         *
+         * @return the direction to the right
+         */
+        public Direction turnRight() {
+            return BY_ORDINAL[(ordinal() + 1) & 3];
+        }
+
+        /**
+         * Get the opposite direction.
+         *
+         * @return the opposite direction
+         */
+        public Direction opposite() {
+            return BY_ORDINAL[(ordinal() + 2) & 3];
+        }
+
+        /**
+         * Get a direction from its ordinal.
+         *
+         * @param ordinal the ordinal, which is also the direction's wall grid bit
+         * @return the direction
+         */
+        static Direction of(final int ordinal) {
+            return BY_ORDINAL[ordinal];
+        }
+
+        /**
+         * Get a direction from its name.
+         *
+         * @param name one of the names in {@link #DIRECTIONS}
+         * @return the direction
+         */
+        public static Direction fromString(final String name) {
+            switch (name) {
+                case "up":
+                    return UP;
+                case "right":
+                    return RIGHT;
+                case "down":
+                    return DOWN;
+                case "left":
+                    return LEFT;
+                default:
+                    throw new IllegalArgumentException(name + " is not a valid direction");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
     /**
      * Class representing a possible movement.
      */
@@ -185,14 +333,29 @@ public class Maze {
          * @param newDirection the new movement direction
          */
         public void setDirection(final String newDirection) {
+            this.heading = Direction.fromString(newDirection);
             this.direction = newDirection;
         }
 
+        /**
+         * Gets the movement direction.
+         *
+         * @return the movement direction
+         */
+        public Direction getHeading() {
+            return heading;
+        }
+
         /**
          * The direction.
          */
         private String direction;
 
+        /**
+         * The direction, as a {@link Direction}.
+         */
+        private Direction heading;
+
         /**
          * Instantiates a new movement.
          *
@@ -206,6 +369,18 @@ public class Maze {
                 throw new DirectionException(setDirection + " is not a valid direction");
             }
             direction = setDirection;
+            heading = Direction.fromString(setDirection);
+        }
+
+        /**
+         * Instantiates a new movement in the given direction.
+         *
+         * @param setHeading the direction
+         */
+        Movement(final Direction setHeading) {
+            d = new Location(setHeading.dx(), setHeading.dy());
+            direction = setHeading.toString();
+            heading = setHeading;
         }
     }
 
@@ -221,162 +396,159 @@ public class Maze {
 
     static {
         MOVEMENTS = new HashMap<String, Movement>();
-        try {
-            MOVEMENTS.put("up", new Movement(new Location(0, 1), "up"));
-            MOVEMENTS.put("down", new Movement(new Location(0, -1), "down"));
-            MOVEMENTS.put("right", new Movement(new Location(1, 0), "right"));
-            MOVEMENTS.put("left", new Movement(new Location(-1, 0), "left"));
-        } catch (DirectionException e) {
-            e.printStackTrace();
-        }
-
         OPPOSITEDIRECTIONS = new HashMap<String, String>();
-        OPPOSITEDIRECTIONS.put("up", "down");
-        OPPOSITEDIRECTIONS.put("down", "up");
-        OPPOSITEDIRECTIONS.put("left", "right");
-        OPPOSITEDIRECTIONS.put("right", "left");
+        for (Direction direction : Direction.values()) {
+            MOVEMENTS.put(direction.toString(), new Movement(direction));
+            OPPOSITEDIRECTIONS.put(direction.toString(), direction.opposite().toString());
+        }
     }
 
     /**
-     * A class representing a cell in the maze.
+     * The built-in maze generation algorithms.
      */
-    class Cell {
+    public enum Algorithm implements MazeGenerator {
 
         /**
-         * The cell's location.
+         * Recursive backtracker: long winding corridors. The default.
          */
-        private final Location location;
+        BACKTRACKER(new BacktrackerGenerator()),
 
         /**
-         * Gets cell's location.
-         *
-         * @return the location
+         * Randomized Kruskal's algorithm: many short dead ends.
          */
-        public Location getLocation() {
-            return location;
-        }
+        KRUSKAL(new KruskalGenerator()),
 
         /**
-         * Whether we have visited the cell during maze construction.
+         * Randomized Prim's algorithm: frequent branching around the starting cell.
          */
-        private boolean visited;
+        PRIM(new PrimGenerator()),
 
         /**
-         * Checks if the cell has been visited during maze creation.
-         *
-         * @return true, if it has been visited
+         * Wilson's algorithm: uniformly distributed over all perfect mazes.
          */
-        public boolean isVisited() {
-            return visited;
-        }
+        WILSON(new WilsonGenerator()),
 
         /**
-         * Mark the cell as visited.
+         * Eller's algorithm: one row at a time in memory proportional to the width.
          */
-        public void setAsVisited() {
-            this.visited = true;
-        }
+        ELLER(new EllerGenerator()),
 
         /**
-         * Map of cell up, right, down, left borders.
+         * Backtracker tiles carved in parallel on the common pool and stitched together.
          */
-        private Map<String, Boolean> borders;
+        TILED(new TiledGenerator());
 
         /**
-         * Gets the borders.
-         *
-         * @param direction the direction to set
-         * @return the borders
+         * The generator that does the work.
          */
-        public Boolean getBorder(final String direction) {
-            return borders.get(direction);
-        }
+        private final MazeGenerator engine;
 
         /**
-         * Clear a borders.
+         * Create a new algorithm.
          *
-         * @param direction the name of the border to clear
+         * @param setEngine the generator that does the work
          */
-        public void clearBorder(final String direction) {
-            this.borders.put(direction, false);
+        Algorithm(final MazeGenerator setEngine) {
+            engine = setEngine;
+        }
+
+        @Override
+        public void generate(final WallGrid walls, final Random random) {
+            engine.generate(walls, random);
         }
+    }
+
+    /**
+     * A class representing a cell in the maze.
+     * <p>
+     * Cells are lightweight read-only views onto the maze's wall grid and can be created on
+     * demand. Borders can no longer be cleared once the maze has been generated, since the walls
+     * are shared with {@link #getLayout()}; {@link MazeLayout#isOpen} answers the same question
+     * from any thread.
+     */
+    class Cell {
 
         /**
-         * Map of cell up, right, down, left neighboring cells, if they exist.
+         * The cell's index in the wall grid.
          */
-        private Map<String, Cell> neighbors;
+        private final int index;
 
         /**
-         * Get a cell's neighbors.
+         * Gets cell's location.
          *
-         * @return the neighbors of the cell
+         * @return the location
          */
-        public Map<String, Cell> getNeighbors() {
-            return neighbors;
+        public Location getLocation() {
+            return new Location(walls.x(index), walls.y(index));
         }
 
         /**
-         * Set a given neighbors.
+         * Gets the borders.
          *
          * @param direction the direction to set
-         * @param neighbor  the cell to set as a neighbor
+         * @return the borders
          */
-        public void setNeighbor(final String direction, final Cell neighbor) {
-            this.neighbors.put(direction, neighbor);
+        public boolean getBorder(final Direction direction) {
+            return !walls.isOpen(index, direction.ordinal());
         }
 
         /**
-         * Relative direction using during maze construction.
+         * Gets the borders.
+         *
+         * @param direction the direction to set
+         * @return the borders
          */
-        private String relativeDirection;
+        public boolean getBorder(final String direction) {
+            return getBorder(Direction.fromString(direction));
+        }
 
         /**
-         * Gets the relative direction. Used during creation.
+         * Get a cell's neighbor.
          *
-         * @return the relative direction
+         * @param direction the direction to look in
+         * @return the neighboring cell, or null if there is none
          */
-        public String getRelativeDirection() {
-            return relativeDirection;
+        public Cell getNeighbor(final Direction direction) {
+            if (!walls.hasNeighbor(index, direction.ordinal())) {
+                return null;
+            }
+            return new Cell(walls.neighbor(index, direction.ordinal()));
         }
 
         /**
-         * Sets the relative direction. Used during creation.
+         * Get a cell's neighbor.
          *
-         * @param setRelativeDirection the new relative direction
+         * @param direction the name of the direction to look in
+         * @return the neighboring cell, or null if there is none
          */
-        public void setRelativeDirection(final String setRelativeDirection) {
-            this.relativeDirection = setRelativeDirection;
+        public Cell getNeighbor(final String direction) {
+            return getNeighbor(Direction.fromString(direction));
         }
 
         /**
          * Create a new cell.
          *
-         * @param setLocation the cell's location
+         * @param setIndex the cell's index in the wall grid
          */
-        Cell(final Location setLocation) {
-            location = setLocation;
-            borders = new HashMap<String, Boolean>();
-            for (String direction : DIRECTIONS) {
-                borders.put(direction, true);
-            }
-            neighbors = new HashMap<String, Cell>();
+        Cell(final int setIndex) {
+            index = setIndex;
         }
     }
 
     /**
-     * The maze.
+     * The maze's walls.
      */
-    private Cell[][] maze;
+    private final WallGrid walls;
 
     /**
      * Create a new maze object with the specified dimensions.
      *
-     * @param location the location to check
+     * @param x the X coordinate to check
+     * @param y the Y coordinate to check
      * @return true, if successful
      */
-    private boolean validLocation(final Location location) {
-        return (location.x() >= 0 && location.x() < myXDimension && location.y() >= 0
-                && location.y() < myYDimension);
+    private boolean validLocation(final int x, final int y) {
+        return (x >= 0 && x < myXDimension && y >= 0 && y < myYDimension);
     }
 
     /**
@@ -407,6 +579,73 @@ public class Maze {
         return myYDimension;
     }
 
+    /**
+     * The source of randomness, or null to use the calling thread's {@link ThreadLocalRandom}.
+     */
+    private final Random random;
+
+    /**
+     * Get the source of randomness for this maze.
+     *
+     * @return the random number generator
+     */
+    private Random random() {
+        if (random == null) {
+            return ThreadLocalRandom.current();
+        }
+        return random;
+    }
+
+    /**
+     * The seed the maze was generated from, if {@link #seeded} is set.
+     */
+    private final long seed;
+
+    /**
+     * Whether the seed is known.
+     */
+    private final boolean seeded;
+
+    /**
+     * The built-in algorithm the maze was generated with, or null if it is not known.
+     */
+    private final Algorithm algorithm;
+
+    /**
+     * Get the seed the maze was generated from. The seed is only known for mazes created with a
+     * seed, or loaded from a file saved from one.
+     *
+     * @return the seed, or an empty value if it is not known
+     */
+    public OptionalLong getSeed() {
+        if (!seeded) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(seed);
+    }
+
+    /**
+     * Get the built-in algorithm the maze was generated with.
+     *
+     * @return the algorithm, or null if the maze was made by some other generator
+     */
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Get the built-in algorithm behind a generator.
+     *
+     * @param generator the generator
+     * @return the algorithm, or null if the generator is not one of them
+     */
+    private static Algorithm algorithmOf(final MazeGenerator generator) {
+        if (generator instanceof Algorithm) {
+            return (Algorithm) generator;
+        }
+        return null;
+    }
+
     /**
      * Create a new randomly-generated maze.
      *
@@ -414,9 +653,83 @@ public class Maze {
      * @param mazeYDimension the y dimension
      */
     public Maze(final int mazeXDimension, final int mazeYDimension) {
+        this(mazeXDimension, mazeYDimension, null);
+    }
+
+    /**
+     * Create a new maze generated from a seed. The same seed and dimensions always produce the
+     * same maze.
+     *
+     * @param mazeXDimension the x dimension
+     * @param mazeYDimension the y dimension
+     * @param setSeed        the random seed
+     */
+    public Maze(final int mazeXDimension, final int mazeYDimension, final long setSeed) {
+        this(mazeXDimension, mazeYDimension, Algorithm.BACKTRACKER, setSeed);
+    }
+
+    /**
+     * Create a new maze generated from a given source of randomness. The same generator state
+     * and dimensions always produce the same maze. Subclasses of {@link Random} that override
+     * {@link Random#next(int)} can be used to plug in a faster algorithm.
+     * <p>
+     * The generator is also used by {@link #startAtRandomLocation()} and
+     * {@link #endAtRandomLocation()}.
+     *
+     * @param mazeXDimension the x dimension
+     * @param mazeYDimension the y dimension
+     * @param setRandom      the random number generator, or null to use {@link ThreadLocalRandom}
+     */
+    public Maze(final int mazeXDimension, final int mazeYDimension, final Random setRandom) {
+        this(mazeXDimension, mazeYDimension, Algorithm.BACKTRACKER, setRandom);
+    }
+
+    /**
+     * Create a new maze using a given generator, seeded for reproducibility.
+     *
+     * @param mazeXDimension the x dimension
+     * @param mazeYDimension the y dimension
+     * @param generator      the maze generator
+     * @param setSeed        the random seed
+     */
+    public Maze(final int mazeXDimension, final int mazeYDimension,
+                final MazeGenerator generator, final long setSeed) {
+        this(mazeXDimension, mazeYDimension, generator, new Random(setSeed), setSeed, true);
+    }
+
+    /**
+     * Create a new maze using a given generator and source of randomness.
+     *
+     * @param mazeXDimension the x dimension
+     * @param mazeYDimension the y dimension
+     * @param generator      the maze generator
+     * @param setRandom      the random number generator, or null to use {@link ThreadLocalRandom}
+     */
+    public Maze(final int mazeXDimension, final int mazeYDimension,
+                final MazeGenerator generator, final Random setRandom) {
+        this(mazeXDimension, mazeYDimension, generator, setRandom, 0, false);
+    }
+
+    /**
+     * Create a new maze, remembering the seed if there is one.
+     *
+     * @param mazeXDimension the x dimension
+     * @param mazeYDimension the y dimension
+     * @param generator      the maze generator
+     * @param setRandom      the random number generator, or null to use {@link ThreadLocalRandom}
+     * @param setSeed        the seed the random number generator was created from
+     * @param setSeeded      whether the seed is known
+     */
+    private Maze(final int mazeXDimension, final int mazeYDimension,
+                 final MazeGenerator generator, final Random setRandom, final long setSeed,
+                 final boolean setSeeded) {
 
         myXDimension = mazeXDimension;
         myYDimension = mazeYDimension;
+        random = setRandom;
+        seed = setSeed;
+        seeded = setSeeded;
+        algorithm = algorithmOf(generator);
 
         if (myXDimension < 1) {
             throw new IllegalArgumentException("xDimension too small");
@@ -424,104 +737,108 @@ public class Maze {
         if (myYDimension < 1) {
             throw new IllegalArgumentException("yDimension too small");
         }
-        if (myXDimension * myYDimension <= 1) {
+        if ((long) myXDimension * myYDimension <= 1) {
             throw new IllegalArgumentException("combined dimensions too small");
         }
 
-        maze = new Cell[myXDimension][myYDimension];
-        for (int x = 0; x < myXDimension; x++) {
-            for (int y = 0; y < myYDimension; y++) {
-                maze[x][y] = new Cell(new Location(x, y));
-            }
-        }
-        for (int x = 0; x < myXDimension; x++) {
-            for (int y = 0; y < myYDimension; y++) {
-                for (Map.Entry<String, Movement> entry : MOVEMENTS.entrySet()) {
-                    Movement movement = entry.getValue();
-                    Location neighborLocation = maze[x][y].getLocation().add(movement.getD());
-                    if (!(validLocation(neighborLocation))) {
-                        continue;
-                    }
-                    maze[x][y].setNeighbor(movement.direction,
-                            maze[neighborLocation.x()][neighborLocation.y()]);
-                }
-            }
-        }
+        walls = new WallGrid(myXDimension, myYDimension);
 
-        int randomX = ThreadLocalRandom.current().nextInt(0, myXDimension);
-        int randomY = ThreadLocalRandom.current().nextInt(0, myYDimension);
-        Cell currentCell = maze[randomX][randomY];
-        Stack<Cell> path = new Stack<Cell>();
-        path.push(currentCell);
-        int unvisitedCount = myXDimension * myYDimension - 1;
+        generator.generate(walls, random());
+    }
 
-        while (unvisitedCount > 0) {
-            if (path.empty()) {
-                throw new IllegalStateException("path should not be empty");
-            }
+    /**
+     * Create a maze around walls that already exist, such as those of a loaded file.
+     *
+     * @param setWalls     the walls
+     * @param setAlgorithm the algorithm the walls were generated with, or null
+     * @param setSeed      the seed the walls were generated from
+     * @param setSeeded    whether the seed is known
+     * @param setCurrent   the current location's cell index, or -1
+     * @param setEnd       the end location's cell index, or -1
+     */
+    Maze(final WallGrid setWalls, final Algorithm setAlgorithm, final long setSeed,
+         final boolean setSeeded, final int setCurrent, final int setEnd) {
+        if (setWalls.size() <= 1) {
+            throw new IllegalArgumentException("combined dimensions too small");
+        }
+        walls = setWalls;
+        myXDimension = setWalls.getWidth();
+        myYDimension = setWalls.getHeight();
+        random = null;
+        algorithm = setAlgorithm;
+        seed = setSeed;
+        seeded = setSeeded;
+        if (setCurrent < NO_CELL || setCurrent >= walls.size()
+                || setEnd < NO_CELL || setEnd >= walls.size()) {
+            throw new IllegalArgumentException("start or end is outside the maze");
+        }
+        currentCell = setCurrent;
+        endCell = setEnd;
+    }
 
-            currentCell = path.peek();
-            currentCell.setAsVisited();
+    /**
+     * How thoroughly {@link #verify(VerifyMode)} checks the maze.
+     */
+    public enum VerifyMode {
 
-            ArrayList<Cell> nextCells = new ArrayList<Cell>();
-            for (Map.Entry<String, Cell> entry : currentCell.getNeighbors().entrySet()) {
-                Cell neighbor = entry.getValue();
-                if (!(neighbor.isVisited())) {
-                    neighbor.setRelativeDirection(entry.getKey());
-                    nextCells.add(neighbor);
-                }
-            }
+        /**
+         * Skip all checks.
+         */
+        OFF,
 
-            if (nextCells.size() == 0) {
-                path.pop();
-                continue;
-            }
+        /**
+         * Check the outer walls and neighbor agreement of a random sample of cells. The sample
+         * never draws from the maze's own source of randomness, so seeded mazes stay
+         * reproducible.
+         */
+        SAMPLED,
 
-            Cell nextCell = nextCells.get(ThreadLocalRandom.current().nextInt(0, nextCells.size()));
-            if (currentCell.getBorder(nextCell.relativeDirection) == false) {
-                throw new IllegalStateException("current cell should not have this border");
-            }
-            currentCell.clearBorder(nextCell.relativeDirection);
-            String oppositeDirection = OPPOSITEDIRECTIONS.get(nextCell.relativeDirection);
-            if (nextCell.getBorder(oppositeDirection) == false) {
-                throw new IllegalStateException("next cell should not have this border");
-            }
-            nextCell.clearBorder(oppositeDirection);
+        /**
+         * Check every cell in parallel, then check that the maze has exactly one fewer passages
+         * than cells and a single connected component.
+         */
+        FULL
+    }
 
-            unvisitedCount--;
-            path.add(nextCell);
-        }
-        for (int x = 0; x < myXDimension; x++) {
-            for (int y = 0; y < myYDimension; y++) {
-                Cell cell = maze[x][y];
-                if (y == myYDimension - 1 && cell.getBorder("up") == false) {
-                    throw new IllegalStateException("top row should have this border");
-                }
-                if (y == 0 && cell.getBorder("down") == false) {
-                    throw new IllegalStateException("bottom row should have this border");
-                }
-                if (x == myXDimension - 1 && cell.getBorder("right") == false) {
-                    throw new IllegalStateException("right column should have this border");
-                }
-                if (x == 0 && cell.getBorder("left") == false) {
-                    throw new IllegalStateException("left column should have this border");
-                }
-                for (Map.Entry<String, Cell> entry : cell.neighbors.entrySet()) {
-                    Cell neighbor = entry.getValue();
-                    String direction = entry.getKey();
-                    String oppositeDirection = OPPOSITEDIRECTIONS.get(direction);
-                    if (cell.getBorder(direction) != neighbor.getBorder(oppositeDirection)) {
-                        throw new IllegalStateException("mismatched neigbor borders");
-                    }
-                }
-            }
+    /**
+     * Check that the maze is well formed, throwing an exception if it is not.
+     * <p>
+     * Mazes are not checked when they are created. Generators always produce perfect mazes, so
+     * this is mostly useful for custom generators and mazes loaded from elsewhere.
+     *
+     * @param mode how thoroughly to check
+     */
+    public void verify(final VerifyMode mode) {
+        switch (mode) {
+            case OFF:
+                break;
+            case SAMPLED:
+                GridVerifier.sampled(walls, ThreadLocalRandom.current());
+                break;
+            case FULL:
+                GridVerifier.full(walls);
+                break;
+            default:
+                throw new IllegalArgumentException(mode + " is not a valid mode");
         }
     }
 
     /**
-     * The user's current X, Y location.
+     * Fully check that the maze is well formed, throwing an exception if it is not.
+     */
+    public void verify() {
+        verify(VerifyMode.FULL);
+    }
+
+    /**
+     * Marker for a location that has not been set yet.
+     */
+    private static final int NO_CELL = -1;
+
+    /**
+     * The user's current location, as a wall grid cell index.
      */
-    private Location currentLocation = null;
+    private int currentCell = NO_CELL;
 
     /**
      * Start the maze at a specific location.
@@ -531,45 +848,41 @@ public class Maze {
      * @throws LocationException a location exception the location is invalid
      */
     public void startAt(final int x, final int y) throws LocationException {
-        Location potentialLocation = new Location(x, y);
-        if (!validLocation(potentialLocation)) {
+        if (!validLocation(x, y)) {
             throw new LocationException("can't set maze end at invalid location");
         }
-        currentLocation = potentialLocation;
+        currentCell = walls.index(x, y);
     }
 
     /**
      * Start the maze at (0, 0).
      */
     public void startAtZero() {
-        currentLocation = new Location(0, 0);
+        currentCell = walls.index(0, 0);
     }
 
     /**
      * Start the maze at a random location.
      */
     public void startAtRandomLocation() {
-        Location newLocation;
-        do {
-            newLocation = new Location(ThreadLocalRandom.current().nextInt(0, myXDimension),
-                    ThreadLocalRandom.current().nextInt(0, myYDimension));
-        } while (currentLocation == newLocation);
-        currentLocation = newLocation;
+        Random generator = random();
+        int randomX = generator.nextInt(myXDimension);
+        currentCell = walls.index(randomX, generator.nextInt(myYDimension));
     }
 
     /**
      * Get the current location.
      *
-     * @return the current location
+     * @return the current location, or null if it has not been set
      */
     public Location getCurrentLocation() {
-        return currentLocation;
+        return locationOf(currentCell);
     }
 
     /**
-     * The maze's end location.
+     * The maze's end location, as a wall grid cell index.
      */
-    private Location endLocation = null;
+    private int endCell = NO_CELL;
 
     /**
      * End the maze at a specific location.
@@ -579,58 +892,103 @@ public class Maze {
      * @throws LocationException a location exception the location is invalid
      */
     public void endAt(final int x, final int y) throws LocationException {
-        Location potentialLocation = new Location(x, y);
-        if (!validLocation(potentialLocation)) {
+        if (!validLocation(x, y)) {
             throw new LocationException("can't set maze end at invalid location");
         }
-        endLocation = new Location(x, y);
+        endCell = walls.index(x, y);
     }
 
     /**
      * End the maze at the top right corner.
      */
     public void endAtTopRight() {
-        endLocation = new Location(myXDimension - 1, myYDimension - 1);
+        endCell = walls.index(myXDimension - 1, myYDimension - 1);
     }
 
     /**
      * End the maze at a random location.
      */
     public void endAtRandomLocation() {
-        Location newLocation;
-        do {
-            newLocation = new Location(ThreadLocalRandom.current().nextInt(0, myXDimension),
-                    ThreadLocalRandom.current().nextInt(0, myYDimension));
-        } while (endLocation == newLocation);
-        endLocation = newLocation;
+        Random generator = random();
+        int randomX = generator.nextInt(myXDimension);
+        endCell = walls.index(randomX, generator.nextInt(myYDimension));
     }
 
     /**
      * Get the end location.
      *
-     * @return the current location
+     * @return the end location, or null if it has not been set
      */
     public Location getEndLocation() {
-        return endLocation;
+        return locationOf(endCell);
     }
 
     /**
-     * The current movement direction.
+     * Get the wall grid. Callers must not modify it.
+     *
+     * @return the wall grid
      */
-    private String currentDirection = "up";
+    WallGrid walls() {
+        return walls;
+    }
 
     /**
-     * Attempt to move forward in the given direction. Returns true if the move succeeded, and false
-     * if a wall is in the way.
+     * Get the current location as a wall grid cell index.
      *
-     * @return true if the move completed, false if it did not
+     * @return the cell index, or -1 if it has not been set
      */
-    public boolean move() {
-        Cell currentCell = maze[currentLocation.x()][currentLocation.y()];
-        if (currentCell.getBorder(currentDirection)) {
-            return false;
+    int currentCell() {
+        return currentCell;
+    }
+
+    /**
+     * Get the end location as a wall grid cell index.
+     *
+     * @return the cell index, or -1 if it has not been set
+     */
+    int endCell() {
+        return endCell;
+    }
+
+    /**
+     * Convert a wall grid cell index to a new location.
+     *
+     * @param cell the cell index
+     * @return the cell's location, or null if the cell is not set
+     */
+    private Location locationOf(final int cell) {
+        if (cell == NO_CELL) {
+            return null;
+        }
+        return new Location(walls.x(cell), walls.y(cell));
+    }
+
+    /**
+     * The current movement direction.
+     */
+    private Direction currentDirection = Direction.UP;
+
+    /**
+     * Get the current movement direction.
+     *
+     * @return the current movement direction
+     */
+    public Direction getCurrentDirection() {
+        return currentDirection;
+    }
+
+    /**
+     * Attempt to move forward in the given direction. Returns true if the move succeeded, and false
+     * if a wall is in the way.
+     *
+     * @return true if the move completed, false if it did not
+     */
+    public boolean move() {
+        int direction = currentDirection.ordinal();
+        if (!walls.isOpen(currentCell, direction)) {
+            return false;
         } else {
-            currentLocation = currentLocation.add(MOVEMENTS.get(currentDirection).getD());
+            currentCell = walls.neighbor(currentCell, direction);
             return true;
         }
     }
@@ -641,50 +999,167 @@ public class Maze {
      * @return true if you can, false if a wall is in the way
      */
     public boolean canMove() {
-        Cell currentCell = maze[currentLocation.x()][currentLocation.y()];
-        return !currentCell.getBorder(currentDirection);
+        return walls.isOpen(currentCell, currentDirection.ordinal());
     }
 
     /**
      * Turn left.
      */
-    @SuppressWarnings("checkstyle:missingswitchdefault")
     public void turnLeft() {
-        switch (currentDirection) {
-            case "up":
-                currentDirection = "left";
-                break;
-            case "left":
-                currentDirection = "down";
-                break;
-            case "down":
-                currentDirection = "right";
-                break;
-            case "right":
-                currentDirection = "up";
-                break;
-        }
+        currentDirection = currentDirection.turnLeft();
     }
 
     /**
      * Turn right.
      */
-    @SuppressWarnings("checkstyle:missingswitchdefault")
     public void turnRight() {
-        switch (currentDirection) {
-            case "up":
-                currentDirection = "right";
-                break;
-            case "right":
-                currentDirection = "down";
-                break;
-            case "down":
-                currentDirection = "left";
+        currentDirection = currentDirection.turnRight();
+    }
+
+    /**
+     * Move forward in the current direction up to a given number of steps, stopping early at a
+     * wall.
+     *
+     * @param count the largest number of steps to take
+     * @return the number of steps taken
+     */
+    public int move(final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("step count can't be negative");
+        }
+        int direction = currentDirection.ordinal();
+        int cell = currentCell;
+        int steps = 0;
+        while (steps < count && walls.isOpen(cell, direction)) {
+            cell = walls.neighbor(cell, direction);
+            steps++;
+        }
+        currentCell = cell;
+        return steps;
+    }
+
+    /**
+     * Move forward in the current direction until a wall is in the way.
+     *
+     * @return the number of steps taken
+     */
+    public int moveUntilBlocked() {
+        return move(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Follow the corridor ahead until reaching a junction, a dead end or the end location.
+     * <p>
+     * The current direction turns with the corridor and ends up facing the way the last step
+     * went. A corridor that loops back to the starting cell stops there.
+     *
+     * @return the number of steps taken, or zero if a wall is in the way
+     */
+    public int moveUntilJunction() {
+        int direction = currentDirection.ordinal();
+        int cell = currentCell;
+        if (!walls.isOpen(cell, direction)) {
+            return 0;
+        }
+        int steps = 0;
+        while (true) {
+            cell = walls.neighbor(cell, direction);
+            steps++;
+            if (cell == endCell || cell == currentCell) {
                 break;
-            case "left":
-                currentDirection = "up";
+            }
+            int onward = walls.mask(cell) & ~(1 << ((direction + 2) & 3));
+            if (Integer.bitCount(onward) != 1) {
                 break;
+            }
+            direction = Integer.numberOfTrailingZeros(onward);
+        }
+        currentCell = cell;
+        currentDirection = Direction.of(direction);
+        return steps;
+    }
+
+    /**
+     * Run a whole program of moves and turns from the current location and direction.
+     * <p>
+     * The result is the same as making the matching {@link #move()}, {@link #turnLeft()} and
+     * {@link #turnRight()} calls one at a time, and the maze is left in the same state.
+     *
+     * @param program the program to run
+     * @return the final location and direction, the number of successful moves and the index of
+     * the first move that hit a wall
+     */
+    public MoveProgram.Result run(final MoveProgram program) {
+        MoveProgram.Result result = program.run(walls, currentCell, currentDirection.ordinal());
+        currentCell = result.cell();
+        currentDirection = result.getHeading();
+        return result;
+    }
+
+    /**
+     * Get the open exits of the current cell relative to the current direction.
+     * <p>
+     * Bit 0 is set if the way ahead is open, bit 1 for the right, bit 2 for behind and bit 3 for
+     * the left. This answers what a series of turns and {@link #canMove()} calls would, without
+     * changing the current direction.
+     *
+     * @return a four-bit mask of open exits
+     */
+    public int sense() {
+        int heading = currentDirection.ordinal();
+        int open = walls.mask(currentCell);
+        return ((open >>> heading) | (open << (4 - heading))) & WallGrid.ALL_OPEN;
+    }
+
+    /**
+     * Get the borders of every cell in the square window around the current location.
+     *
+     * @param radius how many cells the window reaches out from the current location
+     * @return the packed window
+     * @see #sense(int, long[])
+     */
+    public long[] sense(final int radius) {
+        return sense(radius, null);
+    }
+
+    /**
+     * Get the borders of every cell in the square window around the current location.
+     * <p>
+     * The window is {@code 2 * radius + 1} cells on a side. Each cell takes four bits, packed
+     * sixteen to a long, in the same order and bit layout as the maze's own storage: rows run from
+     * the bottom of the window, cells within a row from the left, and the bits are the absolute
+     * directions up, right, down and left. Cells outside the maze have every wall in place.
+     *
+     * @param radius how many cells the window reaches out from the current location
+     * @param window an array to reuse if it is large enough, or null
+     * @return the packed window, which may be the array passed in
+     */
+    public long[] sense(final int radius, final long[] window) {
+        if (radius < 0 || radius > 0x4000) {
+            throw new IllegalArgumentException("sensing radius out of range");
+        }
+        int side = 2 * radius + 1;
+        int words = (side * side + 15) >>> 4;
+        long[] packed = window;
+        if (packed == null || packed.length < words) {
+            packed = new long[words];
+        } else {
+            Arrays.fill(packed, 0, words, 0);
+        }
+        int left = walls.x(currentCell) - radius;
+        int bottom = walls.y(currentCell) - radius;
+        int slot = 0;
+        for (int row = 0; row < side; row++) {
+            int y = bottom + row;
+            for (int column = 0; column < side; column++, slot++) {
+                int x = left + column;
+                if (validLocation(x, y)) {
+                    long open = walls.mask(walls.index(x, y));
+                    packed[slot >>> 4] |= open << ((slot & 15) << 2);
+                }
+            }
         }
+        return packed;
     }
 
     /**
@@ -693,64 +1168,485 @@ public class Maze {
      * @return true if you are at the maze end point, false otherwise
      */
     public boolean isFinished() {
-        return currentLocation.equals(endLocation);
+        return currentCell != NO_CELL && currentCell == endCell;
+    }
+
+    /**
+     * The layout view, created on first use.
+     */
+    private MazeLayout layout;
+
+    /**
+     * Get a shared read-only view of the maze's walls that can be used across threads.
+     * <p>
+     * The view wraps this maze's own wall grid rather than a copy, since the walls do not change
+     * once the maze has been generated.
+     *
+     * @return the layout
+     */
+    public MazeLayout getLayout() {
+        if (layout == null) {
+            layout = new MazeLayout(walls);
+        }
+        return layout;
+    }
+
+    /**
+     * Create a new cursor on this maze's layout, starting at the current location and heading
+     * for the end location.
+     *
+     * @return the cursor, facing up
+     */
+    public MazeCursor newCursor() {
+        checkEndpoints();
+        return new MazeCursor(getLayout(), currentCell, endCell);
+    }
+
+    /**
+     * Find the shortest path from the current location to the end location using a
+     * breadth-first search.
+     * <p>
+     * Generated mazes are always fully connected, but a maze loaded from a file need not be.
+     *
+     * @return the shortest path, or null if the end location cannot be reached
+     */
+    public MazePath shortestPath() {
+        checkEndpoints();
+        return BfsSolver.solve(walls, currentCell, endCell);
     }
 
+    /**
+     * Find the shortest path from the current location to the end location using two
+     * breadth-first searches, one from each end, that stop when they meet. This returns the
+     * same path as {@link #shortestPath()} while usually expanding far fewer cells.
+     *
+     * @return the shortest path, including the number of cells expanded, or null if the end
+     * location cannot be reached
+     */
+    public MazePath shortestPathBidirectional() {
+        checkEndpoints();
+        return BidirectionalSolver.solve(walls, currentCell, endCell);
+    }
+
+    /**
+     * The hint table for the current end location, built on first use.
+     */
+    private HintTable hintTable;
+
+    /**
+     * Get the table of best directions towards the end location.
+     * <p>
+     * The table is built on first use and rebuilt only after the end location changes. It is
+     * immutable, so it can be shared across threads.
+     *
+     * @return the hint table
+     */
+    public HintTable getHintTable() {
+        if (endCell == NO_CELL) {
+            throw new IllegalStateException("end location has not been set");
+        }
+        if (hintTable == null || hintTable.getGoal() != endCell) {
+            hintTable = new HintTable(walls, endCell);
+        }
+        return hintTable;
+    }
+
+    /**
+     * Get the best direction to move from the current location towards the end location.
+     *
+     * @return the first step of the shortest path, or null if the maze is finished
+     */
+    public Direction bestDirection() {
+        checkEndpoints();
+        if (currentCell == endCell) {
+            return null;
+        }
+        return Direction.of(getHintTable().direction(currentCell));
+    }
+
+    /**
+     * The tree index, built on first use.
+     */
+    private TreeIndex treeIndex;
+
+    /**
+     * Get the tree index, building it if needed.
+     *
+     * @return the tree index
+     */
+    private TreeIndex treeIndex() {
+        if (treeIndex == null) {
+            treeIndex = new TreeIndex(walls);
+        }
+        return treeIndex;
+    }
+
+    /**
+     * Get the length of the path between two locations.
+     * <p>
+     * The first call builds an index over the maze's spanning tree, after which each query
+     * takes logarithmic time without searching.
+     *
+     * @param from the first location
+     * @param to   the second location
+     * @return the number of steps between them
+     * @throws LocationException if either location is invalid
+     */
+    public int distance(final Location from, final Location to) throws LocationException {
+        return treeIndex().distance(cellOf(from), cellOf(to));
+    }
+
+    /**
+     * Get the path between two locations using the same index as
+     * {@link #distance(Location, Location)}.
+     *
+     * @param from the starting location
+     * @param to   the goal location
+     * @return the path between them
+     * @throws LocationException if either location is invalid
+     */
+    public MazePath path(final Location from, final Location to) throws LocationException {
+        return treeIndex().path(cellOf(from), cellOf(to));
+    }
+
+    /**
+     * Convert a location to a wall grid cell index.
+     *
+     * @param location the location
+     * @return the cell index
+     * @throws LocationException if the location is invalid
+     */
+    private int cellOf(final Location location) throws LocationException {
+        if (!validLocation(location.x(), location.y())) {
+            throw new LocationException(location + " is not a valid location");
+        }
+        return walls.index(location.x(), location.y());
+    }
+
+    /**
+     * The A* solver, created on first use so its arrays can be reused across queries.
+     */
+    private AStarSolver aStarSolver;
+
+    /**
+     * Find the shortest path from the current location to the end location using an A* search
+     * with the Manhattan distance heuristic. The solver's working arrays are reused across calls
+     * on the same maze.
+     *
+     * @return the shortest path, including the number of cells expanded, or null if the end
+     * location cannot be reached
+     */
+    public MazePath shortestPathAStar() {
+        checkEndpoints();
+        if (aStarSolver == null) {
+            aStarSolver = new AStarSolver(walls);
+        }
+        return aStarSolver.solve(currentCell, endCell);
+    }
+
+    /**
+     * The junction graph, built on first use.
+     */
+    private JunctionGraph junctionGraph;
+
+    /**
+     * Get the graph of junctions and dead ends, with each corridor collapsed into one edge.
+     * <p>
+     * The graph is built on first use. It is immutable, so it can be shared across threads.
+     *
+     * @return the junction graph
+     */
+    public JunctionGraph getJunctionGraph() {
+        if (junctionGraph == null) {
+            junctionGraph = new JunctionGraph(walls);
+        }
+        return junctionGraph;
+    }
+
+    /**
+     * Find the shortest path from the current location to the end location using Dijkstra's
+     * algorithm over the junction graph. Corridors are crossed in a single step, so only
+     * junctions and dead ends are expanded.
+     *
+     * @return the shortest path, including the number of nodes expanded, or null if the end
+     * location cannot be reached
+     */
+    public MazePath shortestPathJunctions() {
+        checkEndpoints();
+        return getJunctionGraph().shortestPath(currentCell, endCell);
+    }
+
+    /**
+     * Make sure both the current and end locations have been set.
+     */
+    private void checkEndpoints() {
+        if (currentCell == NO_CELL) {
+            throw new IllegalStateException("start location has not been set");
+        }
+        if (endCell == NO_CELL) {
+            throw new IllegalStateException("end location has not been set");
+        }
+    }
+
+    /**
+     * Size of the buffer used when rendering to a channel.
+     */
+    private static final int RENDER_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Draw the maze as text, with the current location marked X and the end location marked E.
+     * <p>
+     * The drawing is made in a single pass into a buffer of exactly the right size. Mazes too
+     * large to fit in a string can be drawn with {@link #render(Appendable)} instead.
+     *
+     * @return the drawing
+     */
     @Override
-    @SuppressWarnings("checkstyle:innerassignment")
     public final String toString() {
-        String returnString = "";
-        char[][] cellDrawing = new char[2 * myXDimension + 1][2 * myYDimension + 1];
+        return toString(null);
+    }
+
+    /**
+     * Draw the maze as text with a path marked along it.
+     * <p>
+     * The path is drawn with dots through the center of each cell it visits and the gaps between
+     * them, in the same pass as the walls. The X and E markers take precedence.
+     *
+     * @param path the path to draw, or null for none
+     * @return the drawing
+     */
+    public String toString(final MazePath path) {
+        AsciiRows.GridDrawer drawer = drawer(path);
+        if (drawer.length() > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("maze is too large to draw as a string");
+        }
+        char[] drawing = new char[(int) drawer.length()];
+        int position = drawer.top(drawing, 0);
+        while (drawer.hasNext()) {
+            position = drawer.next(drawing, position);
+        }
+        return new String(drawing);
+    }
+
+    /**
+     * Draw the maze as text, one row of cells at a time.
+     * <p>
+     * The output is the same as {@link #toString()}, but only one row is held in memory at once.
+     *
+     * @param out where to write the drawing
+     * @throws IOException if writing fails
+     */
+    public void render(final Appendable out) throws IOException {
+        render(out, null);
+    }
 
-        for (int y = 0; y < 2 * myYDimension; y++) {
-            for (int x = 0; x < 2 * myXDimension; x++) {
-                cellDrawing[x][y] = ' ';
+    /**
+     * Draw the maze as text with a path marked along it, one row of cells at a time.
+     *
+     * @param out  where to write the drawing
+     * @param path the path to draw, or null for none
+     * @throws IOException if writing fails
+     * @see #toString(MazePath)
+     */
+    public void render(final Appendable out, final MazePath path) throws IOException {
+        AsciiRows.GridDrawer drawer = drawer(path);
+        char[] lines = new char[drawer.rowLength()];
+        out.append(CharBuffer.wrap(lines, 0, drawer.top(lines, 0)));
+        while (drawer.hasNext()) {
+            out.append(CharBuffer.wrap(lines, 0, drawer.next(lines, 0)));
+        }
+    }
+
+    /**
+     * Draw the maze as ASCII text to a channel, one row of cells at a time.
+     * <p>
+     * The output is the same as {@link #toString()}. Narrow rows are gathered into larger writes.
+     *
+     * @param out where to write the drawing
+     * @throws IOException if writing fails
+     */
+    public void render(final WritableByteChannel out) throws IOException {
+        render(out, null);
+    }
+
+    /**
+     * Draw the maze as ASCII text to a channel with a path marked along it.
+     *
+     * @param out  where to write the drawing
+     * @param path the path to draw, or null for none
+     * @throws IOException if writing fails
+     * @see #toString(MazePath)
+     */
+    public void render(final WritableByteChannel out, final MazePath path) throws IOException {
+        AsciiRows.GridDrawer drawer = drawer(path);
+        char[] lines = new char[drawer.rowLength()];
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(RENDER_BUFFER_SIZE, lines.length));
+        put(lines, drawer.top(lines, 0), buffer, out);
+        while (drawer.hasNext()) {
+            put(lines, drawer.next(lines, 0), buffer, out);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Write the maze as a packed-bit PBM image, one pixel per character of {@link #toString()},
+     * with walls in black.
+     * <p>
+     * Rows are converted and written as they are drawn, so the whole image is never held in
+     * memory. Writing to a {@link java.nio.channels.FileChannel} produces a ready-to-view file.
+     *
+     * @param out where to write the image
+     * @throws IOException if writing fails
+     */
+    public void writePbm(final WritableByteChannel out) throws IOException {
+        MazeImage.pbm(drawer(null), myXDimension, myYDimension, out);
+    }
+
+    /**
+     * Write the maze as an 8-bit PGM image in the same layout as {@link #writePbm}, with the
+     * current and end locations drawn in shades of gray.
+     *
+     * @param out where to write the image
+     * @throws IOException if writing fails
+     */
+    public void writePgm(final WritableByteChannel out) throws IOException {
+        writePgm(out, null);
+    }
+
+    /**
+     * Write the maze as an 8-bit PGM image with a path drawn in light gray.
+     *
+     * @param out  where to write the image
+     * @param path the path to draw, or null for none
+     * @throws IOException if writing fails
+     * @see #toString(MazePath)
+     */
+    public void writePgm(final WritableByteChannel out, final MazePath path) throws IOException {
+        MazeImage.pgm(drawer(path), myXDimension, myYDimension, out);
+    }
+
+    /**
+     * Build a path from a sequence of cell indexes, where the cell at (x, y) has index
+     * {@code y * getxDimension() + x}. Consecutive cells must be neighbors, but walls between
+     * them are allowed, so agent trails can be drawn as recorded.
+     *
+     * @param cells the cell indexes, starting with the first cell visited
+     * @return the path
+     */
+    public MazePath pathThrough(final int[] cells) {
+        if (cells.length == 0) {
+            throw new IllegalArgumentException("path must visit at least one cell");
+        }
+        for (int cell : cells) {
+            if (cell < 0 || cell >= walls.size()) {
+                throw new IllegalArgumentException(cell + " is not a valid cell");
             }
         }
-        for (int x = 0; x < myXDimension; x++) {
-            for (int y = 0; y < myYDimension; y++) {
-                int xOffset = 2 * x;
-                int yOffset = 2 * y;
-                if (maze[x][y].getBorder("up")) {
-                    cellDrawing[xOffset][yOffset + 2] =
-                            cellDrawing[xOffset + 1][yOffset + 2] =
-                                    cellDrawing[xOffset + 2][yOffset + 2] = '#';
-                }
-                if (maze[x][y].getBorder("right")) {
-                    cellDrawing[xOffset + 2][yOffset] =
-                            cellDrawing[xOffset + 2][yOffset + 1] =
-                                    cellDrawing[xOffset + 2][yOffset + 2] = '#';
-                }
-                if (maze[x][y].getBorder("down")) {
-                    cellDrawing[xOffset][yOffset] =
-                            cellDrawing[xOffset + 1][yOffset] =
-                                    cellDrawing[xOffset + 2][yOffset] = '#';
-                }
-                if (maze[x][y].getBorder("left")) {
-                    cellDrawing[xOffset][yOffset] =
-                            cellDrawing[xOffset][yOffset + 1] =
-                                    cellDrawing[xOffset][yOffset + 2] = '#';
-                }
-                if (x == currentLocation.x() && y == currentLocation.y()) {
-                    cellDrawing[xOffset + 1][yOffset + 1] = 'X';
-                } else if (x == endLocation.x() && y == endLocation.y()) {
-                    cellDrawing[xOffset + 1][yOffset + 1] = 'E';
-                }
+        byte[] steps = new byte[cells.length - 1];
+        for (int step = 0; step < steps.length; step++) {
+            steps[step] = (byte) walls.direction(cells[step], cells[step + 1]);
+            if (!walls.hasNeighbor(cells[step], steps[step])) {
+                throw new IllegalArgumentException("cells are not neighbors");
             }
         }
-        for (int x = 0; x < 2 * myXDimension + 1; x++) {
-            returnString += "#";
+        return new MazePath(walls.x(cells[0]), walls.y(cells[0]), steps, 0);
+    }
+
+    /**
+     * Create a drawer for the maze and its markers.
+     *
+     * @param path a path to overlay, or null for none
+     * @return the drawer
+     */
+    private AsciiRows.GridDrawer drawer(final MazePath path) {
+        long[] marks = null;
+        if (path != null) {
+            marks = AsciiRows.pathMarks(walls, path);
         }
-        returnString += "\n";
-        for (int y = (2 * myYDimension) - 1; y >= 0; y--) {
-            for (int x = 0; x < 2 * myXDimension; x++) {
-                returnString += cellDrawing[x][y];
-            }
-            returnString += "#\n";
+        return new AsciiRows.GridDrawer(walls, currentCell, endCell, marks);
+    }
+
+    /**
+     * Save the maze in the binary maze file format.
+     * <p>
+     * The file holds the dimensions, the generating algorithm and seed when they are known, the
+     * current and end locations, the packed walls and checksums. It can be opened again with
+     * {@link #load(Path)}.
+     *
+     * @param file the file to write
+     * @throws IOException if writing fails
+     */
+    public void save(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            save(channel);
         }
-        return returnString;
     }
 
+    /**
+     * Save the maze in the binary maze file format.
+     *
+     * @param out where to write the maze
+     * @throws IOException if writing fails
+     * @see #save(Path)
+     */
+    public void save(final WritableByteChannel out) throws IOException {
+        MazeFile.save(this, out);
+    }
+
+    /**
+     * Open a maze saved with {@link #save(Path)}.
+     * <p>
+     * The file is mapped into memory and the walls are read straight from the mapping, so even
+     * very large mazes open instantly. Only the header is checked; use
+     * {@link #load(Path, boolean)} to also check the walls against their checksum. The loaded
+     * maze's walls are read-only.
+     *
+     * @param file the file to open
+     * @return the maze
+     * @throws IOException if the file can't be read or is not a valid maze file
+     */
+    public static Maze load(final Path file) throws IOException {
+        return load(file, false);
+    }
+
+    /**
+     * Open a maze saved with {@link #save(Path)}, optionally checking the walls' checksum.
+     *
+     * @param file         the file to open
+     * @param checkPayload whether to verify the walls' checksum, which reads the whole file
+     * @return the maze
+     * @throws IOException if the file can't be read, is not a valid maze file or fails the check
+     */
+    public static Maze load(final Path file, final boolean checkPayload) throws IOException {
+        return MazeFile.load(file, checkPayload);
+    }
+
+    /**
+     * Copy ASCII characters into a buffer, writing the buffer out first if they won't fit.
+     *
+     * @param lines  the characters
+     * @param length how many characters to copy
+     * @param buffer the buffer
+     * @param out    where to write the buffer when it fills
+     * @throws IOException if writing fails
+     */
+    private static void put(final char[] lines, final int length, final ByteBuffer buffer,
+                            final WritableByteChannel out) throws IOException {
+        if (buffer.remaining() < length) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) lines[i]);
+        }
+    }
 
     /**
      * Solve a randomly-generated maze.
@@ -0,0 +1,187 @@
+import java.io.IOException;
+
+/**
+ * Redraws only what changed as a maze is explored.
+ * <p>
+ * The walls are drawn once, in the same format as {@link Maze#toString()}. After that, each
+ * update reports just the cells whose markers moved, so a frame costs time in proportion to the
+ * number of changed cells rather than the size of the maze. Changes can be sent to a terminal as
+ * cursor-addressing escape sequences or collected as a list of positions.
+ * <p>
+ * Only the current and end markers are tracked; the walls are drawn once by
+ * {@link #draw(Appendable)}.
+ */
+public final class MazeAnimator {
+
+    /**
+     * Receives the characters that changed since the previous frame.
+     */
+    public interface ChangeSink {
+
+        /**
+         * Handle one changed character.
+         *
+         * @param line   the line of the drawing, counting from zero at the top
+         * @param column the column of the drawing, counting from zero at the left
+         * @param symbol the character now at that position
+         * @throws IOException if writing the change fails
+         */
+        void accept(int line, int column, char symbol) throws IOException;
+    }
+
+    /**
+     * Escape sequence that moves the terminal cursor home and clears the screen.
+     */
+    private static final String CLEAR_SCREEN = "\u001b[H\u001b[2J";
+
+    /**
+     * The maze being animated.
+     */
+    private final Maze maze;
+
+    /**
+     * The cell drawn as the current location, or -1.
+     */
+    private int drawnCurrent = -1;
+
+    /**
+     * The cell drawn as the end location, or -1.
+     */
+    private int drawnEnd = -1;
+
+    /**
+     * Create a new animator.
+     *
+     * @param setMaze the maze to animate
+     */
+    public MazeAnimator(final Maze setMaze) {
+        maze = setMaze;
+    }
+
+    /**
+     * Clear the terminal and draw the whole maze.
+     *
+     * @param out the terminal to draw on
+     * @throws IOException if writing fails
+     */
+    public void draw(final Appendable out) throws IOException {
+        out.append(CLEAR_SCREEN);
+        maze.render(out);
+        drawnCurrent = maze.currentCell();
+        drawnEnd = maze.endCell();
+    }
+
+    /**
+     * Redraw the cells that changed since the last frame using terminal escape sequences, then
+     * leave the terminal cursor just below the maze.
+     *
+     * @param out the terminal to draw on
+     * @return the number of cells redrawn
+     * @throws IOException if writing fails
+     */
+    public int update(final Appendable out) throws IOException {
+        int changed = update(ansi(out));
+        if (changed > 0) {
+            moveTo(out, 2 * maze.walls().getHeight() + 1, 0);
+        }
+        return changed;
+    }
+
+    /**
+     * Report the cells that changed since the last frame.
+     *
+     * @param sink where to send the changes
+     * @return the number of cells reported
+     * @throws IOException if the sink fails
+     */
+    public int update(final ChangeSink sink) throws IOException {
+        int current = maze.currentCell();
+        int end = maze.endCell();
+        if (current == drawnCurrent && end == drawnEnd) {
+            return 0;
+        }
+        int changed = 0;
+        changed += redraw(drawnCurrent, current, end, sink);
+        if (drawnEnd != drawnCurrent) {
+            changed += redraw(drawnEnd, current, end, sink);
+        }
+        if (current != drawnCurrent && current != drawnEnd) {
+            changed += redraw(current, current, end, sink);
+        }
+        if (end != drawnCurrent && end != drawnEnd && end != current) {
+            changed += redraw(end, current, end, sink);
+        }
+        drawnCurrent = current;
+        drawnEnd = end;
+        return changed;
+    }
+
+    /**
+     * Get a sink that sends each change to a terminal as a cursor move and a character.
+     *
+     * @param out the terminal
+     * @return the sink
+     */
+    public static ChangeSink ansi(final Appendable out) {
+        return (line, column, symbol) -> {
+            moveTo(out, line, column);
+            out.append(symbol);
+        };
+    }
+
+    /**
+     * Report the marker for one cell if it changed.
+     *
+     * @param cell    the cell, or -1
+     * @param current the current location's cell
+     * @param end     the end location's cell
+     * @param sink    where to send the change
+     * @return 1 if the cell was reported, 0 otherwise
+     * @throws IOException if the sink fails
+     */
+    private int redraw(final int cell, final int current, final int end, final ChangeSink sink)
+            throws IOException {
+        if (cell < 0) {
+            return 0;
+        }
+        char symbol = symbol(cell, current, end);
+        if (symbol == symbol(cell, drawnCurrent, drawnEnd)) {
+            return 0;
+        }
+        WallGrid walls = maze.walls();
+        int line = 2 * (walls.getHeight() - 1 - walls.y(cell)) + 1;
+        sink.accept(line, 2 * walls.x(cell) + 1, symbol);
+        return 1;
+    }
+
+    /**
+     * Get the character drawn at the center of a cell.
+     *
+     * @param cell    the cell
+     * @param current the current location's cell
+     * @param end     the end location's cell
+     * @return the character
+     */
+    private static char symbol(final int cell, final int current, final int end) {
+        if (cell == current) {
+            return AsciiRows.CURRENT;
+        } else if (cell == end) {
+            return AsciiRows.END;
+        }
+        return AsciiRows.OPEN;
+    }
+
+    /**
+     * Move the terminal cursor to a position in the drawing.
+     *
+     * @param out    the terminal
+     * @param line   the line, counting from zero at the top
+     * @param column the column, counting from zero at the left
+     * @throws IOException if writing fails
+     */
+    private static void moveTo(final Appendable out, final int line, final int column)
+            throws IOException {
+        out.append("\u001b[").append(Integer.toString(line + 1)).append(';')
+                .append(Integer.toString(column + 1)).append('H');
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * One agent's position, heading and goal on a shared {@link MazeLayout}.
+ * <p>
+ * A cursor holds only a few references, two cell indexes and a heading, about 32 bytes, so
+ * thousands of them can walk the same maze. Each cursor is meant to be used by one thread at a
+ * time, while the layout underneath can be shared freely.
+ */
+public final class MazeCursor {
+
+    /**
+     * The layout being walked.
+     */
+    private final MazeLayout layout;
+
+    /**
+     * The walls of the layout.
+     */
+    private final WallGrid walls;
+
+    /**
+     * The current cell index.
+     */
+    private int cell;
+
+    /**
+     * The goal cell index.
+     */
+    private final int goal;
+
+    /**
+     * The current movement direction.
+     */
+    private Maze.Direction heading = Maze.Direction.UP;
+
+    /**
+     * Create a new cursor.
+     *
+     * @param setLayout the layout to walk
+     * @param setCell   the starting cell index
+     * @param setGoal   the goal cell index
+     */
+    MazeCursor(final MazeLayout setLayout, final int setCell, final int setGoal) {
+        layout = setLayout;
+        walls = setLayout.walls();
+        cell = setCell;
+        goal = setGoal;
+    }
+
+    /**
+     * Get the layout this cursor walks.
+     *
+     * @return the layout
+     */
+    public MazeLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Get the current location.
+     *
+     * @return the current location
+     */
+    public Maze.Location getLocation() {
+        return new Maze.Location(walls.x(cell), walls.y(cell));
+    }
+
+    /**
+     * Get the goal location.
+     *
+     * @return the goal location
+     */
+    public Maze.Location getGoal() {
+        return new Maze.Location(walls.x(goal), walls.y(goal));
+    }
+
+    /**
+     * Get the current movement direction.
+     *
+     * @return the current movement direction
+     */
+    public Maze.Direction getHeading() {
+        return heading;
+    }
+
+    /**
+     * Attempt to move forward in the current direction.
+     *
+     * @return true if the move completed, false if a wall is in the way
+     */
+    public boolean move() {
+        int direction = heading.ordinal();
+        if (!walls.isOpen(cell, direction)) {
+            return false;
+        }
+        cell = walls.neighbor(cell, direction);
+        return true;
+    }
+
+    /**
+     * Return if you can move in the current direction.
+     *
+     * @return true if you can, false if a wall is in the way
+     */
+    public boolean canMove() {
+        return walls.isOpen(cell, heading.ordinal());
+    }
+
+    /**
+     * Turn left.
+     */
+    public void turnLeft() {
+        heading = heading.turnLeft();
+    }
+
+    /**
+     * Turn right.
+     */
+    public void turnRight() {
+        heading = heading.turnRight();
+    }
+
+    /**
+     * Run a whole program of moves and turns from the current location and heading.
+     *
+     * @param program the program to run
+     * @return the outcome, which also becomes this cursor's position and heading
+     * @see Maze#run(MoveProgram)
+     */
+    public MoveProgram.Result run(final MoveProgram program) {
+        MoveProgram.Result result = program.run(walls, cell, heading.ordinal());
+        cell = result.cell();
+        heading = result.getHeading();
+        return result;
+    }
+
+    /**
+     * Return true when the cursor has reached its goal.
+     *
+     * @return true if the cursor is at the goal, false otherwise
+     */
+    public boolean isFinished() {
+        return cell == goal;
+    }
+}
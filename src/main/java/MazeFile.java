@@ -0,0 +1,206 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the binary maze file format.
+ * <p>
+ * A file is a 64-byte header followed by the wall grid's packed words, all little-endian:
+ * <pre>
+ *  0  magic "MAZE"         4 bytes
+ *  4  version              2 bytes
+ *  6  algorithm ordinal    1 byte, or -1 if unknown
+ *  7  flags                1 byte, bit 0 set if the seed is known
+ *  8  width                4 bytes
+ * 12  height               4 bytes
+ * 16  seed                 8 bytes
+ * 24  current cell         4 bytes, or -1 if unset
+ * 28  end cell             4 bytes, or -1 if unset
+ * 32  payload length       8 bytes
+ * 40  payload CRC-32       4 bytes
+ * 44  header CRC-32        4 bytes, covering bytes 0 to 43
+ * 48  reserved            16 bytes of zeros
+ * </pre>
+ * The payload starts on an eight-byte boundary, so a loaded maze reads its walls directly from
+ * the memory-mapped file without parsing or copying them.
+ */
+final class MazeFile {
+
+    /**
+     * The magic number, "MAZE" read as a little-endian integer.
+     */
+    private static final int MAGIC = 0x455A414D;
+
+    /**
+     * The current format version.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The size of the header in bytes.
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * The number of header bytes covered by the header checksum.
+     */
+    private static final int HEADER_CHECKED = 44;
+
+    /**
+     * Flag set when the seed is known.
+     */
+    private static final int SEEDED = 1;
+
+    /**
+     * Size of the buffer used to write the payload.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Utility class.
+     */
+    private MazeFile() {
+    }
+
+    /**
+     * Write a maze.
+     *
+     * @param maze the maze
+     * @param out  where to write it
+     * @throws IOException if writing fails
+     */
+    static void save(final Maze maze, final WritableByteChannel out) throws IOException {
+        WallGrid walls = maze.walls();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 payload = new CRC32();
+        for (int word = 0; word < walls.wordCount(); word++) {
+            buffer.putLong(walls.word(word));
+            if (!buffer.hasRemaining()) {
+                buffer.flip();
+                payload.update(buffer);
+                buffer.clear();
+            }
+        }
+        buffer.flip();
+        payload.update(buffer);
+        buffer.clear();
+
+        int algorithm = -1;
+        if (maze.getAlgorithm() != null) {
+            algorithm = maze.getAlgorithm().ordinal();
+        }
+        int flags = 0;
+        if (maze.getSeed().isPresent()) {
+            flags |= SEEDED;
+        }
+        buffer.putInt(MAGIC).putShort(VERSION).put((byte) algorithm).put((byte) flags)
+                .putInt(walls.getWidth()).putInt(walls.getHeight())
+                .putLong(maze.getSeed().orElse(0)).putInt(maze.currentCell())
+                .putInt(maze.endCell()).putLong(8L * walls.wordCount())
+                .putInt((int) payload.getValue());
+        CRC32 header = new CRC32();
+        header.update(buffer.array(), 0, HEADER_CHECKED);
+        buffer.putInt((int) header.getValue());
+        while (buffer.position() < HEADER_SIZE) {
+            buffer.put((byte) 0);
+        }
+
+        for (int word = 0; word < walls.wordCount(); word++) {
+            if (!buffer.hasRemaining()) {
+                write(buffer, out);
+            }
+            buffer.putLong(walls.word(word));
+        }
+        write(buffer, out);
+    }
+
+    /**
+     * Load a maze by mapping its file into memory. The walls are read straight from the mapping.
+     *
+     * @param file          the file
+     * @param checkPayload  whether to verify the payload checksum, which reads the whole file
+     * @return the maze, whose walls are read-only
+     * @throws IOException if the file can't be read or is not a valid maze file
+     */
+    static Maze load(final Path file, final boolean checkPayload) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("maze file is truncated");
+                }
+            }
+            header.flip();
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("not a maze file");
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new IOException("unsupported maze file version " + header.getShort(4));
+            }
+            CRC32 headerCrc = new CRC32();
+            headerCrc.update(header.array(), 0, HEADER_CHECKED);
+            if (header.getInt(HEADER_CHECKED) != (int) headerCrc.getValue()) {
+                throw new IOException("maze file header is corrupt");
+            }
+
+            int algorithmId = header.get(6);
+            int flags = header.get(7);
+            int width = header.getInt(8);
+            int height = header.getInt(12);
+            long length = header.getLong(32);
+            Maze.Algorithm[] algorithms = Maze.Algorithm.values();
+            if (algorithmId < -1 || algorithmId >= algorithms.length || width < 1 || height < 1
+                    || (long) width * height > Integer.MAX_VALUE
+                    || length != 8L * WallGrid.wordCount(width, height)) {
+                throw new IOException("maze file header is invalid");
+            }
+            if (channel.size() < HEADER_SIZE + length) {
+                throw new IOException("maze file is truncated");
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                    length);
+            if (checkPayload) {
+                CRC32 payload = new CRC32();
+                payload.update(mapped.duplicate());
+                if (header.getInt(40) != (int) payload.getValue()) {
+                    throw new IOException("maze file payload is corrupt");
+                }
+            }
+            WallGrid walls = WallGrid.wrap(width, height,
+                    mapped.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+            Maze.Algorithm algorithm = null;
+            if (algorithmId >= 0) {
+                algorithm = algorithms[algorithmId];
+            }
+            try {
+                return new Maze(walls, algorithm, header.getLong(16), (flags & SEEDED) != 0,
+                        header.getInt(24), header.getInt(28));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("maze file header is invalid", e);
+            }
+        }
+    }
+
+    /**
+     * Write out everything in a buffer and empty it.
+     *
+     * @param buffer the buffer
+     * @param out    where to write
+     * @throws IOException if writing fails
+     */
+    private static void write(final ByteBuffer buffer, final WritableByteChannel out)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,18 @@
+import java.util.Random;
+
+/**
+ * A strategy for carving a perfect maze into a wall grid.
+ * <p>
+ * Generators start from a grid with every wall in place and open passages until every cell is
+ * reachable from every other cell along exactly one path.
+ */
+public interface MazeGenerator {
+
+    /**
+     * Carve a perfect maze into a grid.
+     *
+     * @param walls  the grid to carve into, with every wall in place
+     * @param random the source of randomness
+     */
+    void generate(WallGrid walls, Random random);
+}
@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes maze drawings as binary Netpbm images.
+ * <p>
+ * Each character of the {@link Maze#toString()} drawing becomes one pixel, so the image has the
+ * same layout as the text. Rows are converted and written as they are drawn, and only one row of
+ * cells is held in memory at a time, which keeps memory flat even for very large mazes.
+ */
+final class MazeImage {
+
+    /**
+     * Size of the output buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Gray level for walls.
+     */
+    static final int WALL_GRAY = 0;
+
+    /**
+     * Gray level for open space.
+     */
+    static final int OPEN_GRAY = 255;
+
+    /**
+     * Gray level for the current location.
+     */
+    static final int CURRENT_GRAY = 64;
+
+    /**
+     * Gray level for the end location.
+     */
+    static final int END_GRAY = 128;
+
+    /**
+     * Gray level for an overlaid path.
+     */
+    static final int PATH_GRAY = 192;
+
+    /**
+     * Utility class.
+     */
+    private MazeImage() {
+    }
+
+    /**
+     * Write a drawing as a packed-bit PBM image, with walls in black.
+     *
+     * @param drawer the drawing
+     * @param width  the maze width in cells
+     * @param height the maze height in cells
+     * @param out    where to write the image
+     * @throws IOException if writing fails
+     */
+    static void pbm(final AsciiRows.GridDrawer drawer, final int width, final int height,
+                    final WritableByteChannel out) throws IOException {
+        write(drawer, width, height, false, out);
+    }
+
+    /**
+     * Write a drawing as an 8-bit PGM image, with the markers and any path in gray.
+     *
+     * @param drawer the drawing
+     * @param width  the maze width in cells
+     * @param height the maze height in cells
+     * @param out    where to write the image
+     * @throws IOException if writing fails
+     */
+    static void pgm(final AsciiRows.GridDrawer drawer, final int width, final int height,
+                    final WritableByteChannel out) throws IOException {
+        write(drawer, width, height, true, out);
+    }
+
+    /**
+     * Write a drawing as an image.
+     *
+     * @param drawer the drawing
+     * @param width  the maze width in cells
+     * @param height the maze height in cells
+     * @param gray   true for an 8-bit PGM image, false for a packed-bit PBM image
+     * @param out    where to write the image
+     * @throws IOException if writing fails
+     */
+    private static void write(final AsciiRows.GridDrawer drawer, final int width,
+                              final int height, final boolean gray,
+                              final WritableByteChannel out) throws IOException {
+        int pixels = 2 * width + 1;
+        int lineLength = AsciiRows.lineLength(width);
+        String header = "P4\n" + pixels + " " + (2 * height + 1) + "\n";
+        int rowBytes = (pixels + 7) >>> 3;
+        if (gray) {
+            header = "P5\n" + pixels + " " + (2 * height + 1) + "\n255\n";
+            rowBytes = pixels;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, 2 * rowBytes));
+        buffer.put(header.getBytes(StandardCharsets.US_ASCII));
+
+        char[] lines = new char[drawer.rowLength()];
+        int length = drawer.top(lines, 0);
+        while (true) {
+            for (int start = 0; start < length; start += lineLength) {
+                if (buffer.remaining() < rowBytes) {
+                    flush(buffer, out);
+                }
+                if (gray) {
+                    grayRow(lines, start, pixels, buffer);
+                } else {
+                    bitRow(lines, start, pixels, buffer);
+                }
+            }
+            if (!drawer.hasNext()) {
+                break;
+            }
+            length = drawer.next(lines, 0);
+        }
+        flush(buffer, out);
+    }
+
+    /**
+     * Convert one line of the drawing to packed bits, most significant bit first.
+     *
+     * @param lines  the drawing
+     * @param start  where the line starts
+     * @param pixels the number of pixels in the line
+     * @param buffer where to put the bits
+     */
+    private static void bitRow(final char[] lines, final int start, final int pixels,
+                               final ByteBuffer buffer) {
+        int bits = 0;
+        for (int x = 0; x < pixels; x++) {
+            bits <<= 1;
+            if (lines[start + x] == AsciiRows.WALL) {
+                bits |= 1;
+            }
+            if ((x & 7) == 7) {
+                buffer.put((byte) bits);
+                bits = 0;
+            }
+        }
+        if ((pixels & 7) != 0) {
+            buffer.put((byte) (bits << (8 - (pixels & 7))));
+        }
+    }
+
+    /**
+     * Convert one line of the drawing to gray levels.
+     *
+     * @param lines  the drawing
+     * @param start  where the line starts
+     * @param pixels the number of pixels in the line
+     * @param buffer where to put the gray levels
+     */
+    private static void grayRow(final char[] lines, final int start, final int pixels,
+                                final ByteBuffer buffer) {
+        for (int x = 0; x < pixels; x++) {
+            buffer.put((byte) gray(lines[start + x]));
+        }
+    }
+
+    /**
+     * Get the gray level for a character of the drawing.
+     *
+     * @param symbol the character
+     * @return the gray level
+     */
+    static int gray(final char symbol) {
+        switch (symbol) {
+            case AsciiRows.WALL:
+                return WALL_GRAY;
+            case AsciiRows.CURRENT:
+                return CURRENT_GRAY;
+            case AsciiRows.END:
+                return END_GRAY;
+            case AsciiRows.PATH:
+                return PATH_GRAY;
+            default:
+                return OPEN_GRAY;
+        }
+    }
+
+    /**
+     * Write out everything in a buffer and empty it.
+     *
+     * @param buffer the buffer
+     * @param out    where to write
+     * @throws IOException if writing fails
+     */
+    private static void flush(final ByteBuffer buffer, final WritableByteChannel out)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
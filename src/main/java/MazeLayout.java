@@ -0,0 +1,101 @@
+/**
+ * A shared read-only view of a maze's walls.
+ * <p>
+ * A layout never changes once created, so any number of threads can read it without locking.
+ * Agents walk it through {@link MazeCursor} objects, each holding its own position, heading and
+ * goal, which lets many agents share a single maze.
+ */
+public final class MazeLayout {
+
+    /**
+     * The walls, which are never modified after construction.
+     */
+    private final WallGrid walls;
+
+    /**
+     * Create a new layout. The caller must not modify the grid afterwards.
+     *
+     * @param setWalls the walls
+     */
+    MazeLayout(final WallGrid setWalls) {
+        walls = setWalls;
+    }
+
+    /**
+     * Get the walls.
+     *
+     * @return the wall grid, which must not be modified
+     */
+    WallGrid walls() {
+        return walls;
+    }
+
+    /**
+     * Get the X dimension.
+     *
+     * @return the X dimension
+     */
+    public int getxDimension() {
+        return walls.getWidth();
+    }
+
+    /**
+     * Get the Y dimension.
+     *
+     * @return the Y dimension
+     */
+    public int getyDimension() {
+        return walls.getHeight();
+    }
+
+    /**
+     * Return whether a location is inside the layout.
+     *
+     * @param location the location
+     * @return true if the location is valid
+     */
+    public boolean validLocation(final Maze.Location location) {
+        return location.x() >= 0 && location.x() < walls.getWidth()
+                && location.y() >= 0 && location.y() < walls.getHeight();
+    }
+
+    /**
+     * Return whether a border of a cell is open.
+     *
+     * @param location  the cell's location
+     * @param direction the border to check
+     * @return true if there is a passage, false if there is a wall
+     * @throws Maze.LocationException if the location is invalid
+     */
+    public boolean isOpen(final Maze.Location location, final Maze.Direction direction)
+            throws Maze.LocationException {
+        return walls.isOpen(cellOf(location), direction.ordinal());
+    }
+
+    /**
+     * Create a new cursor on this layout, facing up.
+     *
+     * @param start the starting location
+     * @param end   the goal location
+     * @return the cursor
+     * @throws Maze.LocationException if either location is invalid
+     */
+    public MazeCursor cursor(final Maze.Location start, final Maze.Location end)
+            throws Maze.LocationException {
+        return new MazeCursor(this, cellOf(start), cellOf(end));
+    }
+
+    /**
+     * Convert a location to a wall grid cell index.
+     *
+     * @param location the location
+     * @return the cell index
+     * @throws Maze.LocationException if the location is invalid
+     */
+    int cellOf(final Maze.Location location) throws Maze.LocationException {
+        if (!validLocation(location)) {
+            throw new Maze.LocationException(location + " is not a valid location");
+        }
+        return walls.index(location.x(), location.y());
+    }
+}
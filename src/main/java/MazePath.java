@@ -0,0 +1,153 @@
+/**
+ * A path through a maze, stored as a starting location and one direction per step.
+ * <p>
+ * Steps are kept as direction ordinals in a byte array, so even very long paths stay compact.
+ * Solvers also record how many cells they expanded while searching, which makes it easy to
+ * compare their costs.
+ */
+public final class MazePath {
+
+    /**
+     * Letters used by {@link #toString()}, indexed by direction ordinal.
+     */
+    private static final char[] LETTERS = {'U', 'R', 'D', 'L'};
+
+    /**
+     * The starting X coordinate.
+     */
+    private final int startX;
+
+    /**
+     * The starting Y coordinate.
+     */
+    private final int startY;
+
+    /**
+     * The direction ordinal of each step.
+     */
+    private final byte[] steps;
+
+    /**
+     * How many cells the solver expanded.
+     */
+    private final long expanded;
+
+    /**
+     * Create a new path.
+     *
+     * @param setStartX   the starting X coordinate
+     * @param setStartY   the starting Y coordinate
+     * @param setSteps    the direction ordinal of each step
+     * @param setExpanded how many cells the solver expanded
+     */
+    MazePath(final int setStartX, final int setStartY, final byte[] setSteps,
+             final long setExpanded) {
+        startX = setStartX;
+        startY = setStartY;
+        steps = setSteps;
+        expanded = setExpanded;
+    }
+
+    /**
+     * Get the number of steps in the path.
+     *
+     * @return the path length
+     */
+    public int length() {
+        return steps.length;
+    }
+
+    /**
+     * Get the direction of one step.
+     *
+     * @param step the step number, starting from 0
+     * @return the direction of that step
+     */
+    public Maze.Direction getDirection(final int step) {
+        return Maze.Direction.of(steps[step]);
+    }
+
+    /**
+     * Get the starting location.
+     *
+     * @return the starting location
+     */
+    public Maze.Location getStart() {
+        return new Maze.Location(startX, startY);
+    }
+
+    /**
+     * Get the final location, found by following every step.
+     *
+     * @return the final location
+     */
+    public Maze.Location getEnd() {
+        int x = startX;
+        int y = startY;
+        for (byte step : steps) {
+            x += Maze.Direction.of(step).dx();
+            y += Maze.Direction.of(step).dy();
+        }
+        return new Maze.Location(x, y);
+    }
+
+    /**
+     * Get how many cells the solver expanded while finding this path.
+     *
+     * @return the number of expanded cells
+     */
+    public long getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Get a copy of the steps as direction ordinals.
+     *
+     * @return the direction ordinal of each step
+     */
+    public byte[] toBytes() {
+        return steps.clone();
+    }
+
+    /**
+     * Get the steps without copying them. Callers must not modify the array.
+     *
+     * @return the direction ordinal of each step
+     */
+    byte[] steps() {
+        return steps;
+    }
+
+    /**
+     * Build the steps of a path by walking a parent array back from the goal.
+     *
+     * @param walls  the grid the path runs through
+     * @param parent the cell each cell was reached from
+     * @param from   the starting cell
+     * @param to     the goal cell
+     * @return the direction ordinal of each step, from start to goal
+     */
+    static byte[] fromParents(final WallGrid walls, final int[] parent, final int from,
+                              final int to) {
+        int length = 0;
+        for (int cell = to; cell != from; cell = parent[cell]) {
+            length++;
+        }
+        byte[] steps = new byte[length];
+        int cell = to;
+        for (int step = length - 1; step >= 0; step--) {
+            steps[step] = (byte) walls.direction(parent[cell], cell);
+            cell = parent[cell];
+        }
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(steps.length);
+        for (byte step : steps) {
+            builder.append(LETTERS[step]);
+        }
+        return builder.toString();
+    }
+}
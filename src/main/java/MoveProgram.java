@@ -0,0 +1,239 @@
+/**
+ * A compiled sequence of agent actions that can be replayed against a maze in one call.
+ * <p>
+ * Each action takes two bits, packed thirty-two to a long. The code for a turn is the number of
+ * quarter turns to the right it makes, so the interpreter handles every turn with one addition
+ * and only moves need a wall check. Programs are immutable and can be shared across threads.
+ */
+public final class MoveProgram {
+
+    /**
+     * Move forward one cell.
+     */
+    static final int MOVE = 0;
+
+    /**
+     * Turn a quarter turn to the right.
+     */
+    static final int RIGHT = 1;
+
+    /**
+     * Turn around.
+     */
+    static final int AROUND = 2;
+
+    /**
+     * Turn a quarter turn to the left.
+     */
+    static final int LEFT = 3;
+
+    /**
+     * Letters used by {@link #parse(CharSequence)} and {@link #toString()}, indexed by code.
+     */
+    private static final char[] LETTERS = {'M', 'R', 'U', 'L'};
+
+    /**
+     * Packed action codes.
+     */
+    private final long[] ops;
+
+    /**
+     * The number of actions.
+     */
+    private final int length;
+
+    /**
+     * Create a new program.
+     *
+     * @param setOps    the packed action codes
+     * @param setLength the number of actions
+     */
+    private MoveProgram(final long[] setOps, final int setLength) {
+        ops = setOps;
+        length = setLength;
+    }
+
+    /**
+     * Compile a program from text.
+     * <p>
+     * Each character is one action: M moves forward, L and R turn left and right, and U turns
+     * around. Whitespace is ignored.
+     *
+     * @param text the actions
+     * @return the program
+     */
+    public static MoveProgram parse(final CharSequence text) {
+        long[] packed = new long[(text.length() + 31) >>> 5];
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            long code;
+            switch (text.charAt(i)) {
+                case 'M':
+                    code = MOVE;
+                    break;
+                case 'R':
+                    code = RIGHT;
+                    break;
+                case 'U':
+                    code = AROUND;
+                    break;
+                case 'L':
+                    code = LEFT;
+                    break;
+                default:
+                    if (Character.isWhitespace(text.charAt(i))) {
+                        continue;
+                    }
+                    throw new IllegalArgumentException(text.charAt(i) + " is not a valid action");
+            }
+            packed[count >>> 5] |= code << ((count & 31) << 1);
+            count++;
+        }
+        return new MoveProgram(packed, count);
+    }
+
+    /**
+     * Get the number of actions.
+     *
+     * @return the program length
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Run the program against a grid.
+     *
+     * @param walls   the grid
+     * @param cell    the starting cell
+     * @param heading the starting direction ordinal
+     * @return the result
+     */
+    Result run(final WallGrid walls, final int cell, final int heading) {
+        int current = cell;
+        int direction = heading;
+        int steps = 0;
+        int firstFailure = -1;
+        int op = 0;
+        for (int word = 0; op < length; word++) {
+            long bits = ops[word];
+            int end = Math.min(length, op + 32);
+            for (; op < end; op++, bits >>>= 2) {
+                int code = (int) bits & 3;
+                if (code != MOVE) {
+                    direction = (direction + code) & 3;
+                } else if (walls.isOpen(current, direction)) {
+                    current = walls.neighbor(current, direction);
+                    steps++;
+                } else if (firstFailure < 0) {
+                    firstFailure = op;
+                }
+            }
+        }
+        return new Result(walls, current, direction, steps, firstFailure);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length);
+        for (int op = 0; op < length; op++) {
+            builder.append(LETTERS[(int) (ops[op >>> 5] >>> ((op & 31) << 1)) & 3]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The outcome of running a program.
+     */
+    public static final class Result {
+
+        /**
+         * The grid the program ran on.
+         */
+        private final WallGrid walls;
+
+        /**
+         * The cell the program finished in.
+         */
+        private final int cell;
+
+        /**
+         * The direction ordinal the program finished facing.
+         */
+        private final int heading;
+
+        /**
+         * The number of moves that succeeded.
+         */
+        private final int steps;
+
+        /**
+         * The index of the first move that hit a wall, or -1.
+         */
+        private final int firstFailure;
+
+        /**
+         * Create a new result.
+         *
+         * @param setWalls        the grid the program ran on
+         * @param setCell         the final cell
+         * @param setHeading      the final direction ordinal
+         * @param setSteps        the number of moves that succeeded
+         * @param setFirstFailure the index of the first move that hit a wall, or -1
+         */
+        Result(final WallGrid setWalls, final int setCell, final int setHeading,
+               final int setSteps, final int setFirstFailure) {
+            walls = setWalls;
+            cell = setCell;
+            heading = setHeading;
+            steps = setSteps;
+            firstFailure = setFirstFailure;
+        }
+
+        /**
+         * Get the final cell index.
+         *
+         * @return the cell index
+         */
+        int cell() {
+            return cell;
+        }
+
+        /**
+         * Get the final location.
+         *
+         * @return the location the program finished in
+         */
+        public Maze.Location getEnd() {
+            return new Maze.Location(walls.x(cell), walls.y(cell));
+        }
+
+        /**
+         * Get the final direction.
+         *
+         * @return the direction the program finished facing
+         */
+        public Maze.Direction getHeading() {
+            return Maze.Direction.of(heading);
+        }
+
+        /**
+         * Get the number of moves that succeeded.
+         *
+         * @return the step count
+         */
+        public int getSteps() {
+            return steps;
+        }
+
+        /**
+         * Get the index of the first move that hit a wall. Failed moves leave the agent in place
+         * and the program carries on, just as repeated {@link Maze#move()} calls would.
+         *
+         * @return the action index, or -1 if every move succeeded
+         */
+        public int getFirstFailure() {
+            return firstFailure;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates mazes using randomized Prim's algorithm.
+ * <p>
+ * The frontier of cells next to the growing tree is kept in a growable {@code int} array, and a
+ * random frontier cell is joined to a random neighbor already in the tree at each step. Prim
+ * mazes branch often and have many short dead ends radiating from the starting cell.
+ */
+final class PrimGenerator implements MazeGenerator {
+
+    /**
+     * State of a cell that is not yet in the tree or on the frontier.
+     */
+    private static final byte OUTSIDE = 0;
+
+    /**
+     * State of a cell on the frontier.
+     */
+    private static final byte FRONTIER = 1;
+
+    /**
+     * State of a cell in the tree.
+     */
+    private static final byte INSIDE = 2;
+
+    @Override
+    public void generate(final WallGrid walls, final Random random) {
+        byte[] state = new byte[walls.size()];
+        int[] frontier = new int[64];
+        int frontierSize = 0;
+
+        int randomX = random.nextInt(walls.getWidth());
+        int randomY = random.nextInt(walls.getHeight());
+        int cell = walls.index(randomX, randomY);
+
+        while (true) {
+            state[cell] = INSIDE;
+            int neighbors = walls.neighborMask(cell);
+            for (int direction = WallGrid.UP; direction <= WallGrid.LEFT; direction++) {
+                if ((neighbors & (1 << direction)) == 0) {
+                    continue;
+                }
+                int neighbor = walls.neighbor(cell, direction);
+                if (state[neighbor] != OUTSIDE) {
+                    continue;
+                }
+                state[neighbor] = FRONTIER;
+                if (frontierSize == frontier.length) {
+                    frontier = Arrays.copyOf(frontier, Math.min(2 * frontier.length,
+                            walls.size()));
+                }
+                frontier[frontierSize++] = neighbor;
+            }
+
+            if (frontierSize == 0) {
+                return;
+            }
+            int choice = random.nextInt(frontierSize);
+            cell = frontier[choice];
+            frontier[choice] = frontier[--frontierSize];
+
+            neighbors = walls.neighborMask(cell);
+            int inside = 0;
+            for (int direction = WallGrid.UP; direction <= WallGrid.LEFT; direction++) {
+                if ((neighbors & (1 << direction)) != 0
+                        && state[walls.neighbor(cell, direction)] == INSIDE) {
+                    inside |= 1 << direction;
+                }
+            }
+            walls.carve(cell, WallGrid.randomDirection(inside, random));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates large mazes in parallel by splitting the grid into tiles.
+ * <p>
+ * Each tile is carved as a separate perfect maze on a {@link ForkJoinPool}, then the tiles are
+ * stitched together by opening exactly one passage across each edge of a random spanning tree
+ * over the tiles, which keeps the whole maze perfect. Per-tile seeds are drawn up front from
+ * the caller's source of randomness, so the result does not depend on thread scheduling.
+ */
+public final class TiledGenerator implements MazeGenerator {
+
+    /**
+     * The default tile width and height, in cells.
+     */
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    /**
+     * The generator used inside each tile.
+     */
+    private final MazeGenerator tileGenerator;
+
+    /**
+     * The tile width and height, in cells.
+     */
+    private final int tileSize;
+
+    /**
+     * The pool that carves the tiles.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a new tiled generator using backtracker tiles on the common pool.
+     */
+    public TiledGenerator() {
+        this(new BacktrackerGenerator(), DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a new tiled generator.
+     *
+     * @param setTileGenerator the generator used inside each tile
+     * @param setTileSize      the tile width and height, in cells
+     * @param setPool          the pool that carves the tiles
+     */
+    public TiledGenerator(final MazeGenerator setTileGenerator, final int setTileSize,
+                          final ForkJoinPool setPool) {
+        if (setTileSize < 1) {
+            throw new IllegalArgumentException("tile size too small");
+        }
+        tileGenerator = setTileGenerator;
+        tileSize = setTileSize;
+        pool = setPool;
+    }
+
+    @Override
+    public void generate(final WallGrid walls, final Random random) {
+        int columns = (walls.getWidth() + tileSize - 1) / tileSize;
+        int rows = (walls.getHeight() + tileSize - 1) / tileSize;
+        long[] seeds = new long[columns * rows];
+        for (int tile = 0; tile < seeds.length; tile++) {
+            seeds[tile] = random.nextLong();
+        }
+        pool.invoke(new TileTask(walls, seeds, columns, 0, seeds.length));
+        stitch(walls, columns, rows, random);
+    }
+
+    /**
+     * Carves a range of tiles, splitting in half until a single tile remains.
+     */
+    @SuppressWarnings("serial")
+    private final class TileTask extends RecursiveAction {
+
+        /**
+         * The grid being carved.
+         */
+        private final WallGrid walls;
+
+        /**
+         * The seed for each tile.
+         */
+        private final long[] seeds;
+
+        /**
+         * The number of tile columns.
+         */
+        private final int columns;
+
+        /**
+         * The first tile in the range.
+         */
+        private final int from;
+
+        /**
+         * One past the last tile in the range.
+         */
+        private final int to;
+
+        /**
+         * Create a new task.
+         *
+         * @param setWalls   the grid being carved
+         * @param setSeeds   the seed for each tile
+         * @param setColumns the number of tile columns
+         * @param setFrom    the first tile in the range
+         * @param setTo      one past the last tile in the range
+         */
+        TileTask(final WallGrid setWalls, final long[] setSeeds, final int setColumns,
+                 final int setFrom, final int setTo) {
+            walls = setWalls;
+            seeds = setSeeds;
+            columns = setColumns;
+            from = setFrom;
+            to = setTo;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(walls, seeds, columns, from, middle),
+                        new TileTask(walls, seeds, columns, middle, to));
+                return;
+            }
+            int x = (from % columns) * tileSize;
+            int y = (from / columns) * tileSize;
+            WallGrid tile = new WallGrid(Math.min(tileSize, walls.getWidth() - x),
+                    Math.min(tileSize, walls.getHeight() - y));
+            tileGenerator.generate(tile, new Random(seeds[from]));
+            walls.paste(tile, x, y);
+        }
+    }
+
+    /**
+     * Join the tiles along a random spanning tree, opening one passage per tree edge.
+     *
+     * @param walls   the grid being carved
+     * @param columns the number of tile columns
+     * @param rows    the number of tile rows
+     * @param random  the source of randomness
+     */
+    private void stitch(final WallGrid walls, final int columns, final int rows,
+                        final Random random) {
+        int tiles = columns * rows;
+        int[] edges = new int[2 * tiles];
+        int edgeCount = 0;
+        for (int tile = 0; tile < tiles; tile++) {
+            if (tile / columns < rows - 1) {
+                edges[edgeCount++] = tile << 1;
+            }
+            if (tile % columns < columns - 1) {
+                edges[edgeCount++] = (tile << 1) | 1;
+            }
+        }
+        for (int i = edgeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = edges[i];
+            edges[i] = edges[j];
+            edges[j] = swap;
+        }
+
+        UnionFind sets = new UnionFind(tiles);
+        for (int i = 0; i < edgeCount; i++) {
+            int tile = edges[i] >>> 1;
+            boolean across = (edges[i] & 1) != 0;
+            int other = tile + columns;
+            if (across) {
+                other = tile + 1;
+            }
+            if (!sets.union(tile, other)) {
+                continue;
+            }
+
+            int x = (tile % columns) * tileSize;
+            int y = (tile / columns) * tileSize;
+            if (across) {
+                int height = Math.min(tileSize, walls.getHeight() - y);
+                int cell = walls.index(x + tileSize - 1, y + random.nextInt(height));
+                walls.carve(cell, WallGrid.RIGHT);
+            } else {
+                int width = Math.min(tileSize, walls.getWidth() - x);
+                int cell = walls.index(x + random.nextInt(width), y + tileSize - 1);
+                walls.carve(cell, WallGrid.UP);
+            }
+        }
+    }
+}
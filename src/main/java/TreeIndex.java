@@ -0,0 +1,224 @@
+import java.util.Arrays;
+
+/**
+ * Answers distance and path queries on a perfect maze without searching.
+ * <p>
+ * A perfect maze is a spanning tree, so the distance between two cells is
+ * {@code depth(a) + depth(b) - 2 * depth(lca(a, b))}. The index roots the tree at cell 0 and
+ * records each cell's depth and parent along with an Euler tour of the tree. Lowest common
+ * ancestors are found as the shallowest cell between the first visits of two cells in the tour,
+ * using a sparse table over fixed-size blocks of the tour and a short scan inside the end
+ * blocks. Queries take logarithmic time and the index uses a few {@code int} arrays the size
+ * of the maze.
+ */
+final class TreeIndex {
+
+    /**
+     * Log base 2 of the number of tour entries in each block.
+     */
+    private static final int BLOCK_SHIFT = 5;
+
+    /**
+     * The grid being indexed.
+     */
+    private final WallGrid walls;
+
+    /**
+     * The depth of each cell below the root.
+     */
+    private final int[] depth;
+
+    /**
+     * The parent of each cell, or -1 for the root.
+     */
+    private final int[] parent;
+
+    /**
+     * The cells in the order a depth-first walk of the tree visits them, with repeats.
+     */
+    private final int[] tour;
+
+    /**
+     * The position of each cell's first visit in the tour.
+     */
+    private final int[] first;
+
+    /**
+     * Sparse table of tour positions: entry {@code [k][i]} is the shallowest position in blocks
+     * {@code i} through {@code i + 2^k - 1}.
+     */
+    private final int[][] table;
+
+    /**
+     * Build the index for a grid holding a perfect maze.
+     *
+     * @param setWalls the grid to index
+     */
+    TreeIndex(final WallGrid setWalls) {
+        walls = setWalls;
+        int size = walls.size();
+        depth = new int[size];
+        parent = new int[size];
+        tour = new int[2 * size - 1];
+        first = new int[size];
+        Arrays.fill(first, -1);
+        buildTour();
+
+        int blocks = ((tour.length - 1) >>> BLOCK_SHIFT) + 1;
+        int levels = 32 - Integer.numberOfLeadingZeros(blocks);
+        table = new int[levels][];
+        table[0] = new int[blocks];
+        for (int block = 0; block < blocks; block++) {
+            int start = block << BLOCK_SHIFT;
+            int end = Math.min(tour.length, start + (1 << BLOCK_SHIFT)) - 1;
+            table[0][block] = scan(start, end);
+        }
+        for (int level = 1; level < levels; level++) {
+            int span = 1 << (level - 1);
+            int[] previous = table[level - 1];
+            int[] current = new int[blocks - (1 << level) + 1];
+            for (int block = 0; block < current.length; block++) {
+                current[block] = shallower(previous[block], previous[block + span]);
+            }
+            table[level] = current;
+        }
+    }
+
+    /**
+     * Walk the tree depth first from cell 0, filling in depths, parents and the Euler tour.
+     */
+    private void buildTour() {
+        int size = walls.size();
+        byte[] nextDirection = new byte[size];
+        int[] stack = new int[size];
+        int stackSize = 0;
+        int position = 0;
+
+        stack[stackSize++] = 0;
+        parent[0] = -1;
+        first[0] = position;
+        tour[position++] = 0;
+        while (stackSize > 0) {
+            int cell = stack[stackSize - 1];
+            int child = -1;
+            while (nextDirection[cell] <= WallGrid.LEFT && child == -1) {
+                int direction = nextDirection[cell]++;
+                if (!walls.isOpen(cell, direction)) {
+                    continue;
+                }
+                int neighbor = walls.neighbor(cell, direction);
+                if (neighbor == parent[cell]) {
+                    continue;
+                }
+                if (first[neighbor] != -1) {
+                    throw new IllegalStateException("maze is not a spanning tree");
+                }
+                child = neighbor;
+            }
+            if (child == -1) {
+                stackSize--;
+                if (stackSize > 0) {
+                    tour[position++] = stack[stackSize - 1];
+                }
+                continue;
+            }
+            parent[child] = cell;
+            depth[child] = depth[cell] + 1;
+            first[child] = position;
+            tour[position++] = child;
+            stack[stackSize++] = child;
+        }
+        if (position != tour.length) {
+            throw new IllegalStateException("maze is not a spanning tree");
+        }
+    }
+
+    /**
+     * Get the distance between two cells.
+     *
+     * @param from the first cell
+     * @param to   the second cell
+     * @return the number of steps on the path between them
+     */
+    int distance(final int from, final int to) {
+        return depth[from] + depth[to] - 2 * depth[ancestor(from, to)];
+    }
+
+    /**
+     * Get the path between two cells.
+     *
+     * @param from the starting cell
+     * @param to   the goal cell
+     * @return the path, which records no expanded cells
+     */
+    MazePath path(final int from, final int to) {
+        int ancestor = ancestor(from, to);
+        int up = depth[from] - depth[ancestor];
+        byte[] steps = new byte[up + depth[to] - depth[ancestor]];
+        int step = 0;
+        for (int cell = from; cell != ancestor; cell = parent[cell]) {
+            steps[step++] = (byte) walls.direction(cell, parent[cell]);
+        }
+        step = steps.length;
+        for (int cell = to; cell != ancestor; cell = parent[cell]) {
+            steps[--step] = (byte) walls.direction(parent[cell], cell);
+        }
+        return new MazePath(walls.x(from), walls.y(from), steps, 0);
+    }
+
+    /**
+     * Find the lowest common ancestor of two cells.
+     *
+     * @param one   the first cell
+     * @param other the second cell
+     * @return the deepest cell that is an ancestor of both
+     */
+    private int ancestor(final int one, final int other) {
+        int left = Math.min(first[one], first[other]);
+        int right = Math.max(first[one], first[other]);
+        int leftBlock = left >>> BLOCK_SHIFT;
+        int rightBlock = right >>> BLOCK_SHIFT;
+        if (leftBlock == rightBlock) {
+            return tour[scan(left, right)];
+        }
+        int best = shallower(scan(left, ((leftBlock + 1) << BLOCK_SHIFT) - 1),
+                scan(rightBlock << BLOCK_SHIFT, right));
+        if (rightBlock - leftBlock > 1) {
+            int from = leftBlock + 1;
+            int to = rightBlock - 1;
+            int level = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+            best = shallower(best, shallower(table[level][from],
+                    table[level][to - (1 << level) + 1]));
+        }
+        return tour[best];
+    }
+
+    /**
+     * Find the shallowest tour position in a range by scanning it.
+     *
+     * @param start the first position
+     * @param end   the last position, inclusive
+     * @return the shallowest position
+     */
+    private int scan(final int start, final int end) {
+        int best = start;
+        for (int position = start + 1; position <= end; position++) {
+            best = shallower(best, position);
+        }
+        return best;
+    }
+
+    /**
+     * Pick the shallower of two tour positions.
+     *
+     * @param one   the first position
+     * @param other the second position
+     * @return whichever position holds the shallower cell
+     */
+    private int shallower(final int one, final int other) {
+        if (depth[tour[other]] < depth[tour[one]]) {
+            return other;
+        }
+        return one;
+    }
+}
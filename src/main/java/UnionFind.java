@@ -0,0 +1,66 @@
+import java.util.Arrays;
+
+/**
+ * A union-find forest over the integers {@code 0} to {@code size - 1}.
+ * <p>
+ * The forest is stored in a single {@code int} array, where roots hold the negated size of their
+ * set. Sets are joined by size and paths are halved on every lookup.
+ */
+final class UnionFind {
+
+    /**
+     * The parent of each element, or the negated set size for roots.
+     */
+    private final int[] parent;
+
+    /**
+     * Create a new forest where every element is in a set of its own.
+     *
+     * @param size the number of elements
+     */
+    UnionFind(final int size) {
+        parent = new int[size];
+        Arrays.fill(parent, -1);
+    }
+
+    /**
+     * Find the root of an element's set, halving the path as we go.
+     *
+     * @param element the element
+     * @return the root element
+     */
+    int find(final int element) {
+        int current = element;
+        while (parent[current] >= 0) {
+            int next = parent[current];
+            if (parent[next] >= 0) {
+                parent[current] = parent[next];
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * Join the sets holding two elements.
+     *
+     * @param first  the first element
+     * @param second the second element
+     * @return true if the elements were in different sets
+     */
+    boolean union(final int first, final int second) {
+        int larger = find(first);
+        int smaller = find(second);
+        if (larger == smaller) {
+            return false;
+        }
+        if (parent[larger] > parent[smaller]) {
+            int swap = larger;
+            larger = smaller;
+            smaller = swap;
+        }
+        parent[larger] += parent[smaller];
+        parent[smaller] = larger;
+        return true;
+    }
+}
@@ -0,0 +1,395 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.LongBuffer;
+import java.util.Random;
+
+/**
+ * Compact storage for the walls of a rectangular maze.
+ * <p>
+ * Each cell's four borders live in one nibble of a packed {@code long} array, sixteen cells to a
+ * word, for half a byte per cell. A set bit marks an open passage, so a freshly allocated grid
+ * has every wall in place. Passages are always carved from both sides at once, which keeps the
+ * borders of neighboring cells in agreement.
+ * <p>
+ * Cells are addressed by index, counting along each row from the bottom left corner. Border
+ * bits are numbered up, right, down, left, matching the ordinals of {@link Maze.Direction}.
+ * <p>
+ * A grid can also read its words from a buffer, such as a memory-mapped file. Such grids are
+ * read-only.
+ */
+final class WallGrid {
+
+    /**
+     * Bit for the up border.
+     */
+    static final int UP = 0;
+
+    /**
+     * Bit for the right border.
+     */
+    static final int RIGHT = 1;
+
+    /**
+     * Bit for the down border.
+     */
+    static final int DOWN = 2;
+
+    /**
+     * Bit for the left border.
+     */
+    static final int LEFT = 3;
+
+    /**
+     * Mask with all four borders open.
+     */
+    static final int ALL_OPEN = 0xF;
+
+    /**
+     * Atomic access to words shared between concurrent {@link #paste} calls.
+     */
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The width of the grid in cells.
+     */
+    private final int width;
+
+    /**
+     * The height of the grid in cells.
+     */
+    private final int height;
+
+    /**
+     * Packed cell nibbles, sixteen to a word, or null if the grid reads from a buffer.
+     */
+    private final long[] cells;
+
+    /**
+     * Read-only packed cell nibbles, used instead of {@link #cells} when it is null.
+     */
+    private final LongBuffer buffer;
+
+    /**
+     * The change in cell index for a step in each direction.
+     */
+    private final int[] steps;
+
+    /**
+     * Create a new grid with every wall in place.
+     *
+     * @param setWidth  the width in cells
+     * @param setHeight the height in cells
+     */
+    WallGrid(final int setWidth, final int setHeight) {
+        this(setWidth, setHeight, new long[wordCount(setWidth, setHeight)], null);
+    }
+
+    /**
+     * Create a new grid over existing storage.
+     *
+     * @param setWidth  the width in cells
+     * @param setHeight the height in cells
+     * @param setCells  the packed words, or null
+     * @param setBuffer the read-only packed words, used if the array is null
+     */
+    private WallGrid(final int setWidth, final int setHeight, final long[] setCells,
+                     final LongBuffer setBuffer) {
+        width = setWidth;
+        height = setHeight;
+        cells = setCells;
+        buffer = setBuffer;
+        steps = new int[] {width, 1, -width, -1};
+    }
+
+    /**
+     * Create a read-only grid that reads its words from a buffer. The buffer's contents must not
+     * change while the grid is in use.
+     *
+     * @param setWidth  the width in cells
+     * @param setHeight the height in cells
+     * @param words     the packed words, starting at the buffer's position
+     * @return the grid
+     */
+    static WallGrid wrap(final int setWidth, final int setHeight, final LongBuffer words) {
+        if (words.remaining() < wordCount(setWidth, setHeight)) {
+            throw new IllegalArgumentException("buffer too small for grid");
+        }
+        return new WallGrid(setWidth, setHeight, null, words.slice());
+    }
+
+    /**
+     * Get the number of words needed to store a grid.
+     *
+     * @param setWidth  the width in cells
+     * @param setHeight the height in cells
+     * @return the number of words
+     */
+    static int wordCount(final int setWidth, final int setHeight) {
+        if (setWidth < 1 || setHeight < 1) {
+            throw new IllegalArgumentException("grid dimensions too small");
+        }
+        long size = (long) setWidth * setHeight;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("combined dimensions too large");
+        }
+        return (int) ((size + 15) >>> 4);
+    }
+
+    /**
+     * Get the number of words of packed storage.
+     *
+     * @return the number of words
+     */
+    int wordCount() {
+        return wordCount(width, height);
+    }
+
+    /**
+     * Get one word of packed storage.
+     *
+     * @param word the word index
+     * @return sixteen cell nibbles, with the lowest-numbered cell in the low bits
+     */
+    long word(final int word) {
+        if (cells == null) {
+            return buffer.get(word);
+        }
+        return cells[word];
+    }
+
+    /**
+     * Get the width of the grid.
+     *
+     * @return the width in cells
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Get the height of the grid.
+     *
+     * @return the height in cells
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the number of cells in the grid.
+     *
+     * @return the number of cells
+     */
+    int size() {
+        return width * height;
+    }
+
+    /**
+     * Get the index of the cell at a given location.
+     *
+     * @param x the X coordinate
+     * @param y the Y coordinate
+     * @return the cell index
+     */
+    int index(final int x, final int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Get the X coordinate of a cell.
+     *
+     * @param cell the cell index
+     * @return the X coordinate
+     */
+    int x(final int cell) {
+        return cell % width;
+    }
+
+    /**
+     * Get the Y coordinate of a cell.
+     *
+     * @param cell the cell index
+     * @return the Y coordinate
+     */
+    int y(final int cell) {
+        return cell / width;
+    }
+
+    /**
+     * Get the open borders of a cell as a four-bit mask.
+     *
+     * @param cell the cell index
+     * @return the mask, with one bit set for each open border
+     */
+    int mask(final int cell) {
+        return (int) (word(cell >>> 4) >>> ((cell & 15) << 2)) & ALL_OPEN;
+    }
+
+    /**
+     * Return whether a cell's border is open.
+     *
+     * @param cell      the cell index
+     * @param direction the border bit
+     * @return true if there is a passage, false if there is a wall
+     */
+    boolean isOpen(final int cell, final int direction) {
+        return (word(cell >>> 4) & (1L << (((cell & 15) << 2) | direction))) != 0;
+    }
+
+    /**
+     * Return whether a cell has a neighbor in a given direction.
+     *
+     * @param cell      the cell index
+     * @param direction the border bit
+     * @return true if the neighbor is inside the grid
+     */
+    boolean hasNeighbor(final int cell, final int direction) {
+        switch (direction) {
+            case UP:
+                return cell < size() - width;
+            case RIGHT:
+                return cell % width != width - 1;
+            case DOWN:
+                return cell >= width;
+            case LEFT:
+                return cell % width != 0;
+            default:
+                throw new IllegalArgumentException(direction + " is not a valid direction");
+        }
+    }
+
+    /**
+     * Get the directions in which a cell has neighbors inside the grid.
+     *
+     * @param cell the cell index
+     * @return a four-bit mask with one bit set for each neighbor
+     */
+    int neighborMask(final int cell) {
+        int x = cell % width;
+        int mask = 0;
+        if (cell < size() - width) {
+            mask |= 1 << UP;
+        }
+        if (x != width - 1) {
+            mask |= 1 << RIGHT;
+        }
+        if (cell >= width) {
+            mask |= 1 << DOWN;
+        }
+        if (x != 0) {
+            mask |= 1 << LEFT;
+        }
+        return mask;
+    }
+
+    /**
+     * Pick one direction at random from a mask.
+     *
+     * @param mask   a non-empty four-bit mask of directions
+     * @param random the source of randomness
+     * @return the direction
+     */
+    static int randomDirection(final int mask, final Random random) {
+        int remaining = mask;
+        int choice = random.nextInt(Integer.bitCount(mask));
+        for (int skip = 0; skip < choice; skip++) {
+            remaining &= remaining - 1;
+        }
+        return Integer.numberOfTrailingZeros(remaining);
+    }
+
+    /**
+     * Get the neighbor of a cell. The caller must make sure the neighbor exists.
+     *
+     * @param cell      the cell index
+     * @param direction the border bit
+     * @return the neighboring cell index
+     */
+    int neighbor(final int cell, final int direction) {
+        return cell + steps[direction];
+    }
+
+    /**
+     * Get the direction of a step between two neighboring cells.
+     *
+     * @param from the cell the step starts from
+     * @param to   the neighboring cell the step ends at
+     * @return the border bit crossed by the step
+     */
+    int direction(final int from, final int to) {
+        int step = to - from;
+        if (step == width) {
+            return UP;
+        } else if (step == 1) {
+            return RIGHT;
+        } else if (step == -width) {
+            return DOWN;
+        } else if (step == -1) {
+            return LEFT;
+        }
+        throw new IllegalArgumentException("cells are not neighbors");
+    }
+
+    /**
+     * Open the passage between a cell and its neighbor, clearing the border on both sides.
+     *
+     * @param cell      the cell index
+     * @param direction the border bit
+     */
+    void carve(final int cell, final int direction) {
+        if (!hasNeighbor(cell, direction)) {
+            throw new IllegalArgumentException("can't clear an outer wall");
+        }
+        checkWritable();
+        int other = neighbor(cell, direction);
+        cells[cell >>> 4] |= 1L << (((cell & 15) << 2) | direction);
+        cells[other >>> 4] |= 1L << (((other & 15) << 2) | ((direction + 2) & 3));
+    }
+
+    /**
+     * Copy the passages of a smaller grid into this one at a given offset.
+     * <p>
+     * Different threads may paste non-overlapping tiles at the same time. Words that lie wholly
+     * inside a tile row are written directly; the words at either end of a row, which may be
+     * shared with a neighboring tile, are updated atomically.
+     *
+     * @param tile the grid to copy from
+     * @param x    the X coordinate of the tile's bottom left cell
+     * @param y    the Y coordinate of the tile's bottom left cell
+     */
+    void paste(final WallGrid tile, final int x, final int y) {
+        checkWritable();
+        int source = 0;
+        for (int row = 0; row < tile.height; row++) {
+            int from = index(x, y + row);
+            int to = from + tile.width;
+            int cell = from;
+            while (cell < to) {
+                int word = cell >>> 4;
+                int wordEnd = Math.min(to, (word + 1) << 4);
+                long bits = 0;
+                while (cell < wordEnd) {
+                    bits |= (long) tile.mask(source++) << ((cell & 15) << 2);
+                    cell++;
+                }
+                if (bits == 0) {
+                    continue;
+                }
+                if (word << 4 >= from && (word + 1) << 4 <= to) {
+                    cells[word] |= bits;
+                } else {
+                    WORDS.getAndBitwiseOr(cells, word, bits);
+                }
+            }
+        }
+    }
+
+    /**
+     * Make sure the grid can be modified.
+     */
+    private void checkWritable() {
+        if (cells == null) {
+            throw new IllegalStateException("maze is read-only");
+        }
+    }
+}
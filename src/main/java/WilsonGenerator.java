@@ -0,0 +1,39 @@
+import java.util.Random;
+
+/**
+ * Generates mazes using Wilson's algorithm.
+ * <p>
+ * Starting from each cell not yet in the tree, a random walk runs until it hits the tree. The
+ * last direction taken out of each cell is recorded, which erases loops implicitly, and the
+ * walk is then retraced and carved. Wilson mazes are uniformly distributed over all spanning
+ * trees, but the first walks can be very long on large grids.
+ */
+final class WilsonGenerator implements MazeGenerator {
+
+    @Override
+    public void generate(final WallGrid walls, final Random random) {
+        int size = walls.size();
+        long[] inTree = new long[(size + 63) >>> 6];
+        byte[] exits = new byte[size];
+
+        int randomX = random.nextInt(walls.getWidth());
+        int randomY = random.nextInt(walls.getHeight());
+        int root = walls.index(randomX, randomY);
+        inTree[root >>> 6] |= 1L << root;
+
+        for (int start = 0; start < size; start++) {
+            int cell = start;
+            while ((inTree[cell >>> 6] & (1L << cell)) == 0) {
+                int direction = WallGrid.randomDirection(walls.neighborMask(cell), random);
+                exits[cell] = (byte) direction;
+                cell = walls.neighbor(cell, direction);
+            }
+            cell = start;
+            while ((inTree[cell >>> 6] & (1L << cell)) == 0) {
+                inTree[cell >>> 6] |= 1L << cell;
+                walls.carve(cell, exits[cell]);
+                cell = walls.neighbor(cell, exits[cell]);
+            }
+        }
+    }
+}
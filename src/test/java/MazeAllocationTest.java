@@ -0,0 +1,76 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Checks that moving around a maze allocates nothing once the JIT has warmed up.
+ */
+public class MazeAllocationTest {
+
+    /**
+     * Iterations of the movement loop before measuring.
+     */
+    private static final int WARMUP = 2_000_000;
+
+    /**
+     * Iterations of the movement loop that are measured.
+     */
+    private static final int MEASURED = 5_000_000;
+
+    /**
+     * Walk a maze with a wall follower and return how many moves succeeded.
+     *
+     * @param maze       the maze
+     * @param iterations how many decisions to make
+     * @return the number of successful moves
+     */
+    private static long walk(final Maze maze, final int iterations) {
+        long steps = 0;
+        for (int i = 0; i < iterations; i++) {
+            if (maze.canMove()) {
+                if (maze.move()) {
+                    steps++;
+                }
+            } else {
+                maze.turnRight();
+                if (!maze.canMove()) {
+                    maze.turnLeft();
+                    maze.turnLeft();
+                }
+            }
+            if (maze.isFinished()) {
+                maze.turnLeft();
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * A steady-state move, canMove and turn loop should allocate zero bytes.
+     */
+    @Test
+    public void moveLoopDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        Maze maze = new Maze(200, 200, 1L);
+        maze.startAtZero();
+        maze.endAtTopRight();
+        long steps = walk(maze, WARMUP);
+        threads.getThreadAllocatedBytes(thread);
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        steps += walk(maze, MEASURED);
+        long after = threads.getThreadAllocatedBytes(thread);
+
+        assertTrue(steps > 0);
+        assertEquals(0, after - before);
+    }
+}